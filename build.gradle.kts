@@ -26,6 +26,20 @@ subprojects {
         withJavadocJar()
     }
 
+    dependencies {
+        "testImplementation"(platform("org.junit:junit-bom:5.11.4"))
+        "testImplementation"("org.junit.jupiter:junit-jupiter")
+        "testRuntimeOnly"("org.junit.platform:junit-platform-launcher")
+    }
+
+    tasks.withType<JavaCompile>().configureEach {
+        options.encoding = "UTF-8"
+    }
+
+    tasks.withType<Test>().configureEach {
+        useJUnitPlatform()
+    }
+
     publishing {
         publications {
             create<MavenPublication>("mavenJava") {
@@ -1,3 +1,3 @@
 rootProject.name = "Vortex"
 
-include("vortex-parser", "vortex-structurate")
\ No newline at end of file
+include("vortex-parser", "vortex-structurate", "vortex-structurate-processor")
\ No newline at end of file
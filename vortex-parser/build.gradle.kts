@@ -3,8 +3,11 @@ plugins {
 }
 
 dependencies {
+    implementation(project(":vortex-structurate"))
+
     implementation("net.kyori:adventure-text-minimessage:4.25.0")
     implementation("net.kyori:adventure-text-serializer-legacy:4.25.0")
+    implementation("net.kyori:adventure-text-serializer-gson:4.25.0")
 
     compileOnly("org.projectlombok:lombok:1.18.42")
     annotationProcessor("org.projectlombok:lombok:1.18.42")
@@ -0,0 +1,258 @@
+package fr.vortex.parser;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.ComponentLike;
+import net.kyori.adventure.text.VirtualComponent;
+import net.kyori.adventure.text.VirtualComponentRenderer;
+import net.kyori.adventure.text.event.HoverEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable message template produced by {@link VortexParser#compile(String)}.
+ * <p>
+ * The legacy and MiniMessage markup is parsed once at compile time; every placeholder found in
+ * the source becomes a slot in the component tree, so rendering only fills slot values in.
+ * A {@link VortexParserPlaceholder.Type#MARKUP} value holding formatting, or a slot inside a tag argument,
+ * cannot be filled in that way: those renders write the values into the source and parse it like
+ * {@link VortexParser#parse} does.
+ */
+public final class CompiledMessage {
+
+    private static final char MARK = '\uE000';
+    private static final char MARK_END = '\uE001';
+    private static final String TEXT_PREFIX = "{\"text\":";
+
+    private final VortexParser parser;
+    private final Component template;
+    private final boolean substituted;
+    private final String[] pieces;
+    private final int[] slotOf;
+    private final VortexParserPlaceholder[] slots;
+
+    private volatile JsonTemplate json;
+
+    /**
+     * {@code pieces} is the source split around its placeholders, the {@code k}-th of which fills slot
+     * {@code slotOf[k]}. A {@code substituted} template is parsed again on every render.
+     */
+    CompiledMessage(VortexParser parser, Component template, boolean substituted, String[] pieces, int[] slotOf,
+                    VortexParserPlaceholder[] slots) {
+        this.parser = parser;
+        this.template = template;
+        this.substituted = substituted;
+        this.pieces = pieces;
+        this.slotOf = slotOf;
+        this.slots = slots;
+    }
+
+    public Component template() {
+        return template;
+    }
+
+    public int slotCount() {
+        return slots.length;
+    }
+
+    public boolean isStatic() {
+        return slots.length == 0;
+    }
+
+    public Component render() {
+        return render(null);
+    }
+
+    public Component render(Object context) {
+        if (slots.length == 0) return template;
+
+        String[] values = new String[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            values[i] = parser.resolve(slots[i], context);
+        }
+        return renderValues(values);
+    }
+
+    /**
+     * Renders this template once per distinct set of resolved values. Context-free slots are
+     * resolved a single time for the whole call; viewers resolving to identical values share one component.
+     */
+    public <C> Map<C, Component> renderForAll(Collection<? extends C> viewers) {
+        Map<C, Component> out = new LinkedHashMap<>(Math.max(16, (int) (viewers.size() / 0.75f) + 1));
+        if (slots.length == 0) {
+            for (C viewer : viewers) out.put(viewer, template);
+            return out;
+        }
+
+        String[] shared = new String[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            if (!slots[i].isContextual()) shared[i] = parser.resolve(slots[i], null);
+        }
+
+        Map<List<String>, Component> distinct = new HashMap<>();
+        for (C viewer : viewers) {
+            String[] values = shared.clone();
+            for (int i = 0; i < slots.length; i++) {
+                if (slots[i].isContextual()) values[i] = parser.resolve(slots[i], viewer);
+            }
+            out.put(viewer, distinct.computeIfAbsent(Arrays.asList(values), k -> renderValues(values)));
+        }
+        return out;
+    }
+
+    public String renderJson() {
+        return renderJson(null);
+    }
+
+    public String renderJson(Object context) {
+        StringBuilder out = new StringBuilder(64);
+        renderJson(context, out);
+        return out.toString();
+    }
+
+    /**
+     * Appends this template as chat JSON without building a component tree: the static parts are
+     * encoded once, and only the placeholder values are escaped per call.
+     */
+    public void renderJson(Object context, StringBuilder out) {
+        if (slots.length == 0) {
+            out.append(jsonTemplate().parts[0]);
+            return;
+        }
+
+        String[] values = new String[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            values[i] = parser.resolve(slots[i], context);
+        }
+        JsonTemplate encoded = substituted || needsSource(values) ? null : jsonTemplate();
+        if (encoded == null || encoded.parts == null) {
+            parser.serializer().appendJson(renderValues(values), out);
+            return;
+        }
+
+        out.append(encoded.parts[0]);
+        for (int k = 0; k < encoded.slotAt.length; k++) {
+            int slot = encoded.slotAt[k];
+            parser.appendSlotJson(slots[slot], values[slot], out);
+            out.append(encoded.parts[k + 1]);
+        }
+    }
+
+    private JsonTemplate jsonTemplate() {
+        JsonTemplate encoded = json;
+        if (encoded == null) {
+            encoded = JsonTemplate.encode(parser.serializer(), template, slots.length);
+            json = encoded;
+        }
+        return encoded;
+    }
+
+    Component renderValues(String[] values) {
+        if (substituted || needsSource(values)) {
+            StringBuilder source = new StringBuilder(pieces[0]);
+            for (int k = 0; k < slotOf.length; k++) {
+                String value = values[slotOf[k]];
+                source.append(value == null ? "" : value).append(pieces[k + 1]);
+            }
+            return parser.parseResolved(source.toString());
+        }
+
+        Component[] components = new Component[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            components[i] = parser.slotValue(slots[i], values[i]);
+        }
+        return fill(template, components);
+    }
+
+    /**
+     * Whether a {@link VortexParserPlaceholder.Type#MARKUP} value must be read along with the source.
+     */
+    private boolean needsSource(String[] values) {
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i].getType() == VortexParserPlaceholder.Type.MARKUP && parser.isMarkup(values[i])) return true;
+        }
+        return false;
+    }
+
+    static Component fill(Component component, Component[] values) {
+        if (component instanceof VirtualComponent virtual && virtual.renderer() instanceof Slot slot) {
+            int index = slot.index();
+            return index >= 0 && index < values.length ? values[index] : Component.empty();
+        }
+
+        Component result = component;
+
+        HoverEvent<?> hover = component.hoverEvent();
+        if (hover != null && hover.value() instanceof Component hoverText) {
+            Component filled = fill(hoverText, values);
+            if (filled != hoverText) result = result.hoverEvent(HoverEvent.showText(filled));
+        }
+
+        List<Component> children = component.children();
+        List<Component> out = null;
+        for (int i = 0; i < children.size(); i++) {
+            Component child = children.get(i);
+            Component filled = fill(child, values);
+            if (out == null && filled != child) out = new ArrayList<>(children.subList(0, i));
+            if (out != null) out.add(filled);
+        }
+        return out == null ? result : result.children(out);
+    }
+
+    /**
+     * Template JSON split around its slots: {@code parts[k]} precedes the value of slot {@code slotAt[k]}.
+     * {@code parts} is {@code null} when the slots could not be located, in which case renders go through the tree.
+     */
+    private record JsonTemplate(String[] parts, int[] slotAt) {
+
+        static JsonTemplate encode(VortexSerializer serializer, Component template, int slotCount) {
+            Component[] markers = new Component[slotCount];
+            for (int i = 0; i < slotCount; i++) {
+                markers[i] = Component.text(MARK + Integer.toString(i) + MARK_END);
+            }
+            String json = serializer.toJson(fill(template, markers));
+
+            List<String> parts = new ArrayList<>();
+            List<Integer> slotAt = new ArrayList<>();
+            int from = 0;
+            int mark;
+            while ((mark = json.indexOf(MARK, from)) >= 0) {
+                int end = json.indexOf(MARK_END, mark);
+                if (end < 0 || json.charAt(mark - 1) != '"' || json.charAt(end + 1) != '"') return new JsonTemplate(null, null);
+
+                int start = mark - 1;
+                int stop = end + 2;
+                if (json.startsWith(TEXT_PREFIX, start - TEXT_PREFIX.length()) && stop < json.length() && json.charAt(stop) == '}') {
+                    start -= TEXT_PREFIX.length();
+                    stop++;
+                }
+
+                parts.add(json.substring(from, start));
+                int slot;
+                try {
+                    slot = Integer.parseInt(json, mark + 1, end, 10);
+                } catch (NumberFormatException e) {
+                    return new JsonTemplate(null, null);
+                }
+                if (slot < 0 || slot >= slotCount) return new JsonTemplate(null, null);
+                slotAt.add(slot);
+                from = stop;
+            }
+            parts.add(json.substring(from));
+            return new JsonTemplate(parts.toArray(new String[0]), slotAt.stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+
+    record Slot(int index) implements VirtualComponentRenderer<Void> {
+
+        @Override
+        public ComponentLike apply(Void context) {
+            return Component.empty();
+        }
+    }
+}
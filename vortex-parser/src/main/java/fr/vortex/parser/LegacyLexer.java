@@ -0,0 +1,289 @@
+package fr.vortex.parser;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.Style;
+import net.kyori.adventure.text.format.TextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Single-pass lexer for legacy formatting codes introduced by {@code &} or the configured legacy char,
+ * including the {@code &#RRGGBB} and {@code &x&R&R&G&G&B&B} hex forms.
+ * <p>
+ * Text without MiniMessage markup is turned into components directly; otherwise the codes are
+ * rewritten into the equivalent MiniMessage tags, leaving the content of existing tags untouched.
+ */
+final class LegacyLexer {
+
+    private static final NamedTextColor[] COLORS = {
+            NamedTextColor.BLACK, NamedTextColor.DARK_BLUE, NamedTextColor.DARK_GREEN, NamedTextColor.DARK_AQUA,
+            NamedTextColor.DARK_RED, NamedTextColor.DARK_PURPLE, NamedTextColor.GOLD, NamedTextColor.GRAY,
+            NamedTextColor.DARK_GRAY, NamedTextColor.BLUE, NamedTextColor.GREEN, NamedTextColor.AQUA,
+            NamedTextColor.RED, NamedTextColor.LIGHT_PURPLE, NamedTextColor.YELLOW, NamedTextColor.WHITE
+    };
+
+    private final char legacyChar;
+    private final boolean stripUnknown;
+
+    LegacyLexer(char legacyChar, boolean stripUnknown) {
+        this.legacyChar = legacyChar;
+        this.stripUnknown = stripUnknown;
+    }
+
+    boolean hasCodes(String text) {
+        return text.indexOf('&') >= 0 || text.indexOf(legacyChar) >= 0;
+    }
+
+    Component toComponent(String text) {
+        if (!hasCodes(text)) return Component.text(text);
+
+        ComponentSink sink = new ComponentSink();
+        scan(text, sink, false);
+        return sink.result();
+    }
+
+    String toMiniMessage(String text) {
+        if (!hasCodes(text)) return text;
+
+        MiniMessageSink sink = new MiniMessageSink(text.length() + 16);
+        scan(text, sink, true);
+        return sink.out.toString();
+    }
+
+    /**
+     * Resolves a color given by name, {@code #RRGGBB} or single legacy code. Returns {@code null} when unknown.
+     */
+    static TextColor color(String value) {
+        if (value == null || value.isEmpty()) return null;
+        if (value.charAt(0) == '#') return TextColor.fromHexString(value);
+        if (value.length() == 1) {
+            int index = Character.digit(value.charAt(0), 16);
+            return index < 0 ? null : COLORS[index];
+        }
+        return NamedTextColor.NAMES.value(value.toLowerCase(Locale.ROOT));
+    }
+
+    static char code(NamedTextColor color) {
+        for (int i = 0; i < COLORS.length; i++) {
+            if (COLORS[i] == color) return Character.forDigit(i, 16);
+        }
+        return 'f';
+    }
+
+    void scan(String text, Sink sink, boolean skipTags) {
+        scan(text, 0, text.length(), sink, skipTags);
+    }
+
+    void scan(String text, int from, int length, Sink sink, boolean skipTags) {
+        int last = from;
+        int i = from;
+
+        while (i < length) {
+            char ch = text.charAt(i);
+
+            if (skipTags && ch == '\\' && i + 1 < length && (text.charAt(i + 1) == '<' || text.charAt(i + 1) == '\\')) {
+                i += 2;
+                continue;
+            }
+
+            if (skipTags && ch == '<') {
+                int end = tagEnd(text, i);
+                if (end > 0) {
+                    i = end;
+                    continue;
+                }
+            }
+
+            if ((ch != '&' && ch != legacyChar) || i + 1 >= length) {
+                i++;
+                continue;
+            }
+
+            char code = Character.toLowerCase(text.charAt(i + 1));
+            int consumed = 2;
+            TextColor color = null;
+            TextDecoration decoration = null;
+            boolean reset = false;
+
+            if (code == '#' && i + 8 <= length && isHex(text, i + 2, 6)) {
+                color = TextColor.color(Integer.parseInt(text, i + 2, i + 8, 16));
+                consumed = 8;
+            } else if (code == 'x' && i + 14 <= length && isRepeatedHex(text, i + 2)) {
+                int rgb = 0;
+                for (int k = 0; k < 6; k++) {
+                    rgb = (rgb << 4) | Character.digit(text.charAt(i + 3 + k * 2), 16);
+                }
+                color = TextColor.color(rgb);
+                consumed = 14;
+            } else if (Character.digit(code, 16) >= 0) {
+                color = COLORS[Character.digit(code, 16)];
+            } else if (code == 'r') {
+                reset = true;
+            } else {
+                decoration = decoration(code);
+                if (decoration == null && !stripUnknown) {
+                    i++;
+                    continue;
+                }
+            }
+
+            if (i > last) sink.text(text, last, i);
+            if (color != null) sink.color(color);
+            else if (decoration != null) sink.decoration(decoration);
+            else if (reset) sink.reset();
+
+            i += consumed;
+            last = i;
+        }
+
+        if (length > last) sink.text(text, last, length);
+    }
+
+    private boolean isRepeatedHex(String text, int from) {
+        for (int k = 0; k < 6; k++) {
+            char prefix = text.charAt(from + k * 2);
+            if (prefix != '&' && prefix != legacyChar) return false;
+            if (Character.digit(text.charAt(from + k * 2 + 1), 16) < 0) return false;
+        }
+        return true;
+    }
+
+    private static boolean isHex(String text, int from, int count) {
+        for (int k = from; k < from + count; k++) {
+            if (Character.digit(text.charAt(k), 16) < 0) return false;
+        }
+        return true;
+    }
+
+    private static TextDecoration decoration(char code) {
+        return switch (code) {
+            case 'k' -> TextDecoration.OBFUSCATED;
+            case 'l' -> TextDecoration.BOLD;
+            case 'm' -> TextDecoration.STRIKETHROUGH;
+            case 'n' -> TextDecoration.UNDERLINED;
+            case 'o' -> TextDecoration.ITALIC;
+            default -> null;
+        };
+    }
+
+    /**
+     * Returns the index just past the {@code >} closing the tag opened at {@code start}, skipping quoted
+     * arguments, or {@code -1} when the tag is never closed.
+     */
+    static int tagEnd(String text, int start) {
+        char quote = 0;
+        for (int i = start + 1; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (quote != 0) {
+                if (ch == '\\') i++;
+                else if (ch == quote) quote = 0;
+            } else if (ch == '\'' || ch == '"') {
+                quote = ch;
+            } else if (ch == '>') {
+                return i + 1;
+            } else if (ch == '<') {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    interface Sink {
+        void text(String source, int from, int to);
+
+        void color(TextColor color);
+
+        void decoration(TextDecoration decoration);
+
+        void reset();
+    }
+
+    private static final class ComponentSink implements Sink {
+
+        private final List<Component> runs = new ArrayList<>();
+        private final StringBuilder run = new StringBuilder();
+        private Style style = Style.empty();
+
+        @Override
+        public void text(String source, int from, int to) {
+            run.append(source, from, to);
+        }
+
+        @Override
+        public void color(TextColor color) {
+            flush();
+            style = Style.style(color);
+        }
+
+        @Override
+        public void decoration(TextDecoration decoration) {
+            flush();
+            style = style.decoration(decoration, true);
+        }
+
+        @Override
+        public void reset() {
+            flush();
+            style = Style.empty();
+        }
+
+        private void flush() {
+            if (run.isEmpty()) return;
+            runs.add(Component.text(run.toString(), style));
+            run.setLength(0);
+        }
+
+        Component result() {
+            flush();
+            if (runs.size() == 1) return runs.get(0);
+            return Component.text().append(runs).build();
+        }
+    }
+
+    private static final class MiniMessageSink implements Sink {
+
+        private final StringBuilder out;
+        private final List<String> open = new ArrayList<>();
+
+        MiniMessageSink(int capacity) {
+            this.out = new StringBuilder(capacity);
+        }
+
+        @Override
+        public void text(String source, int from, int to) {
+            out.append(source, from, to);
+        }
+
+        @Override
+        public void color(TextColor color) {
+            closeAll();
+            push(color instanceof NamedTextColor named ? NamedTextColor.NAMES.key(named) : color.asHexString());
+        }
+
+        @Override
+        public void decoration(TextDecoration decoration) {
+            push(TextDecoration.NAMES.key(decoration));
+        }
+
+        @Override
+        public void reset() {
+            closeAll();
+        }
+
+        private void push(String tag) {
+            open.add(tag);
+            out.append('<').append(tag).append('>');
+        }
+
+        private void closeAll() {
+            for (int i = open.size() - 1; i >= 0; i--) {
+                out.append("</").append(open.get(i)).append('>');
+            }
+            open.clear();
+        }
+    }
+}
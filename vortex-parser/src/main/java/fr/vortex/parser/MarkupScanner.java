@@ -0,0 +1,352 @@
+package fr.vortex.parser;
+
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.TextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Walks legacy codes and MiniMessage tags in one pass without building components, for the
+ * string-to-string operations of {@link VortexParser}.
+ * <p>
+ * It follows the rules of {@code parse}: text without {@code <} only has legacy codes; otherwise tags known
+ * to the standard MiniMessage resolvers are markup, unknown tags stay literal and {@code \<} escapes a tag.
+ * Tags resolved by the client or server ({@code <lang>}, {@code <key>}, {@code <selector>}, {@code <score>},
+ * {@code <nbt>}) have no text here.
+ */
+final class MarkupScanner {
+
+    private static final TagResolver STANDARD = TagResolver.standard();
+
+    private final LegacyLexer legacy;
+    private final TextColor defaultColor;
+
+    /**
+     * {@code defaultColor} is the color of text nothing else colors, as {@code parse} applies it; may be {@code null}.
+     */
+    MarkupScanner(LegacyLexer legacy, TextColor defaultColor) {
+        this.legacy = legacy;
+        this.defaultColor = defaultColor;
+    }
+
+    String strip(String text) {
+        if (text.indexOf('<') < 0 && !legacy.hasCodes(text)) return text;
+
+        PlainSink sink = new PlainSink(text.length());
+        scan(text, sink);
+        return sink.out.toString();
+    }
+
+    int plainLength(String text) {
+        LengthSink sink = new LengthSink();
+        scan(text, sink);
+        return sink.length;
+    }
+
+    String toAnsi(String text) {
+        AnsiSink sink = new AnsiSink(text.length() + 16, defaultColor);
+        scan(text, sink);
+        return sink.result();
+    }
+
+    void scan(String text, Sink sink) {
+        int length = text.length();
+        if (text.indexOf('<') < 0) {
+            legacy.scan(text, 0, length, sink, false);
+            return;
+        }
+
+        int last = 0;
+        int i = 0;
+        while (i < length) {
+            char ch = text.charAt(i);
+
+            if (ch == '\\' && i + 1 < length && (text.charAt(i + 1) == '<' || text.charAt(i + 1) == '\\')) {
+                if (i > last) legacy.scan(text, last, i, sink, false);
+                sink.text(text, i + 1, i + 2);
+                i += 2;
+                last = i;
+                continue;
+            }
+
+            if (ch == '<') {
+                int end = LegacyLexer.tagEnd(text, i);
+                if (end > 0 && tag(text, i, end, sink, last)) {
+                    i = end;
+                    last = i;
+                    continue;
+                }
+            }
+            i++;
+        }
+        if (length > last) legacy.scan(text, last, length, sink, false);
+    }
+
+    /**
+     * Reports the tag spanning {@code [start, end)} when it is a known tag, after flushing the text before it.
+     */
+    private boolean tag(String text, int start, int end, Sink sink, int last) {
+        int from = start + 1;
+        int to = end - 1;
+        boolean closing = from < to && text.charAt(from) == '/';
+        if (closing) from++;
+        boolean selfClosing = to > from && text.charAt(to - 1) == '/';
+        if (selfClosing) to--;
+
+        int colon = from;
+        while (colon < to && text.charAt(colon) != ':') colon++;
+        if (colon == from) return false;
+
+        String name = text.substring(from, colon).toLowerCase(Locale.ROOT);
+        if (!STANDARD.has(name)) return false;
+
+        if (start > last) legacy.scan(text, last, start, sink, false);
+        List<String> args = colon < to ? arguments(text, colon + 1, to) : List.of();
+        if (closing) sink.close(name);
+        else sink.open(name, args, selfClosing);
+        return true;
+    }
+
+    private static List<String> arguments(String text, int from, int to) {
+        List<String> args = new ArrayList<>(2);
+        StringBuilder arg = new StringBuilder();
+        char quote = 0;
+        for (int i = from; i < to; i++) {
+            char ch = text.charAt(i);
+            if (quote != 0) {
+                if (ch == '\\' && i + 1 < to) arg.append(text.charAt(++i));
+                else if (ch == quote) quote = 0;
+                else arg.append(ch);
+            } else if (ch == '\'' || ch == '"') {
+                quote = ch;
+            } else if (ch == ':') {
+                args.add(arg.toString());
+                arg.setLength(0);
+            } else {
+                arg.append(ch);
+            }
+        }
+        args.add(arg.toString());
+        return args;
+    }
+
+    /**
+     * Legacy events plus MiniMessage tags; tag names are lower case and keep a leading {@code !}.
+     */
+    interface Sink extends LegacyLexer.Sink {
+
+        void open(String name, List<String> args, boolean selfClosing);
+
+        void close(String name);
+
+        @Override
+        default void color(TextColor color) {
+        }
+
+        @Override
+        default void decoration(TextDecoration decoration) {
+        }
+
+        @Override
+        default void reset() {
+        }
+    }
+
+    private static final class PlainSink implements Sink {
+
+        private final StringBuilder out;
+
+        PlainSink(int capacity) {
+            this.out = new StringBuilder(capacity);
+        }
+
+        @Override
+        public void text(String source, int from, int to) {
+            out.append(source, from, to);
+        }
+
+        @Override
+        public void open(String name, List<String> args, boolean selfClosing) {
+            if (isNewline(name)) out.append('\n');
+        }
+
+        @Override
+        public void close(String name) {
+        }
+    }
+
+    private static final class LengthSink implements Sink {
+
+        private int length;
+
+        @Override
+        public void text(String source, int from, int to) {
+            length += Character.codePointCount(source, from, to);
+        }
+
+        @Override
+        public void open(String name, List<String> args, boolean selfClosing) {
+            if (isNewline(name)) length++;
+        }
+
+        @Override
+        public void close(String name) {
+        }
+    }
+
+    private static boolean isNewline(String name) {
+        return name.equals("newline") || name.equals("br");
+    }
+
+    /**
+     * Translates styles to SGR escape codes, named colors to the 16 ANSI colors and hex colors to 24-bit ones.
+     * Tags that change nothing on a console (events, fonts, shadows) are tracked only so their closing tag pops correctly.
+     */
+    private static final class AnsiSink implements Sink {
+
+        private static final String RESET = "\u001B[0m";
+        private static final int[] DECORATION_CODES = {5, 1, 9, 4, 3};
+
+        private final StringBuilder out;
+        private final List<Frame> open = new ArrayList<>();
+        private final TextColor defaultColor;
+        private TextColor color;
+        private int mask;
+        private TextColor emittedColor;
+        private int emittedMask;
+
+        AnsiSink(int capacity, TextColor defaultColor) {
+            this.out = new StringBuilder(capacity);
+            this.defaultColor = defaultColor;
+            this.color = defaultColor;
+        }
+
+        @Override
+        public void text(String source, int from, int to) {
+            if (color != emittedColor || mask != emittedMask) emit();
+            out.append(source, from, to);
+        }
+
+        @Override
+        public void color(TextColor color) {
+            this.color = color;
+            this.mask = 0;
+        }
+
+        @Override
+        public void decoration(TextDecoration decoration) {
+            mask |= 1 << decoration.ordinal();
+        }
+
+        @Override
+        public void reset() {
+            color = defaultColor;
+            mask = 0;
+        }
+
+        @Override
+        public void open(String name, List<String> args, boolean selfClosing) {
+            if (isNewline(name)) {
+                out.append('\n');
+                return;
+            }
+            if (name.equals("reset")) {
+                open.clear();
+                reset();
+                return;
+            }
+            if (!selfClosing) open.add(new Frame(name, color, mask));
+
+            boolean negated = name.startsWith("!");
+            TextDecoration decoration = decoration(negated ? name.substring(1) : name);
+            if (decoration != null) {
+                boolean on = !negated && (args.isEmpty() || !args.get(0).equalsIgnoreCase("false"));
+                mask = on ? mask | 1 << decoration.ordinal() : mask & ~(1 << decoration.ordinal());
+                return;
+            }
+
+            TextColor tagColor = switch (name) {
+                case "color", "colour", "c" -> args.isEmpty() ? null : LegacyLexer.color(args.get(0));
+                case "gradient", "transition" -> args.isEmpty() ? NamedTextColor.WHITE : LegacyLexer.color(args.get(0));
+                case "rainbow", "pride" -> NamedTextColor.RED;
+                default -> LegacyLexer.color(name);
+            };
+            if (tagColor != null) color = tagColor;
+        }
+
+        @Override
+        public void close(String name) {
+            for (int i = open.size() - 1; i >= 0; i--) {
+                if (!open.get(i).name.equals(name)) continue;
+
+                Frame frame = open.get(i);
+                color = frame.color;
+                mask = frame.mask;
+                open.subList(i, open.size()).clear();
+                return;
+            }
+        }
+
+        String result() {
+            if (emittedColor != null || emittedMask != 0) out.append(RESET);
+            return out.toString();
+        }
+
+        private void emit() {
+            out.append(RESET);
+            if (color != null) {
+                if (color instanceof NamedTextColor named) {
+                    out.append("\u001B[").append(ansi(named)).append('m');
+                } else {
+                    out.append("\u001B[38;2;").append(color.red()).append(';').append(color.green()).append(';')
+                            .append(color.blue()).append('m');
+                }
+            }
+            for (int i = 0; i < DECORATION_CODES.length; i++) {
+                if ((mask & 1 << i) != 0) out.append("\u001B[").append(DECORATION_CODES[i]).append('m');
+            }
+            emittedColor = color;
+            emittedMask = mask;
+        }
+
+        private static int ansi(NamedTextColor color) {
+            int index = Character.digit(LegacyLexer.code(color), 16);
+            return switch (index) {
+                case 0 -> 30;
+                case 1 -> 34;
+                case 2 -> 32;
+                case 3 -> 36;
+                case 4 -> 31;
+                case 5 -> 35;
+                case 6 -> 33;
+                case 7 -> 37;
+                case 8 -> 90;
+                case 9 -> 94;
+                case 10 -> 92;
+                case 11 -> 96;
+                case 12 -> 91;
+                case 13 -> 95;
+                case 14 -> 93;
+                default -> 97;
+            };
+        }
+
+        private static TextDecoration decoration(String name) {
+            return switch (name) {
+                case "obfuscated", "obf" -> TextDecoration.OBFUSCATED;
+                case "bold", "b" -> TextDecoration.BOLD;
+                case "strikethrough", "st" -> TextDecoration.STRIKETHROUGH;
+                case "underlined", "u" -> TextDecoration.UNDERLINED;
+                case "italic", "i", "em" -> TextDecoration.ITALIC;
+                default -> null;
+            };
+        }
+
+        private record Frame(String name, TextColor color, int mask) {
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package fr.vortex.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Trie over the full placeholder strings (entry delimiter, key and final delimiter) of a placeholder set,
+ * so a text is scanned once whatever the number of registered placeholders.
+ */
+final class PlaceholderMatcher {
+
+    static final PlaceholderMatcher EMPTY = new PlaceholderMatcher(new Node());
+
+    private final Node root;
+
+    private PlaceholderMatcher(Node root) {
+        this.root = root;
+    }
+
+    static PlaceholderMatcher of(List<VortexParserPlaceholder> placeholders) {
+        if (placeholders.isEmpty()) return EMPTY;
+
+        Node root = new Node();
+        for (VortexParserPlaceholder placeholder : placeholders) {
+            String keyString = placeholder.getPlaceholderString();
+            Node node = root;
+            for (int i = 0; i < keyString.length(); i++) {
+                node = node.childOrCreate(keyString.charAt(i));
+            }
+            if (node.placeholder == null) node.placeholder = placeholder;
+        }
+        return new PlaceholderMatcher(root);
+    }
+
+    boolean isEmpty() {
+        return root.chars.length == 0;
+    }
+
+    /**
+     * Replaces every placeholder occurrence in {@code text}, preferring the longest match at each position.
+     * {@code resolver} is called at most once per distinct placeholder found, and not at all for absent ones.
+     * Inserted values are never rescanned. Returns {@code text} itself when nothing matched.
+     */
+    String replace(String text, Function<VortexParserPlaceholder, String> resolver) {
+        if (root.chars.length == 0) return text;
+
+        int length = text.length();
+        StringBuilder out = null;
+        VortexParserPlaceholder[] seen = null;
+        String[] values = null;
+        int seenCount = 0;
+        int last = 0;
+
+        int i = 0;
+        while (i < length) {
+            Node found = longest(text, i);
+            if (found == null) {
+                i++;
+                continue;
+            }
+            VortexParserPlaceholder match = found.placeholder;
+            int end = i + found.depth;
+
+            if (out == null) {
+                out = new StringBuilder(length + 16);
+                seen = new VortexParserPlaceholder[4];
+                values = new String[4];
+            }
+
+            String value = null;
+            for (int k = 0; k < seenCount; k++) {
+                if (seen[k] == match) {
+                    value = values[k];
+                    break;
+                }
+            }
+            if (value == null) {
+                value = resolver.apply(match);
+                if (value == null) value = "";
+                if (seenCount == seen.length) {
+                    seen = Arrays.copyOf(seen, seenCount * 2);
+                    values = Arrays.copyOf(values, seenCount * 2);
+                }
+                seen[seenCount] = match;
+                values[seenCount++] = value;
+            }
+
+            out.append(text, last, i).append(value);
+            i = last = end;
+        }
+
+        if (out == null) return text;
+        return out.append(text, last, length).toString();
+    }
+
+    /**
+     * Splits {@code text} around its placeholder occurrences, matched like {@link #replace}: {@code found}
+     * receives the placeholder of each occurrence, and the {@code found.size() + 1} pieces of text around
+     * them are returned.
+     */
+    String[] split(String text, List<VortexParserPlaceholder> found) {
+        List<String> pieces = new ArrayList<>();
+        int last = 0;
+        int i = 0;
+        while (i < text.length()) {
+            Node match = longest(text, i);
+            if (match == null) {
+                i++;
+                continue;
+            }
+            pieces.add(text.substring(last, i));
+            found.add(match.placeholder);
+            i = last = i + match.depth;
+        }
+        pieces.add(text.substring(last));
+        return pieces.toArray(new String[0]);
+    }
+
+    /**
+     * Node of the longest placeholder string starting at {@code from}, or {@code null} when none does.
+     */
+    private Node longest(String text, int from) {
+        Node node = root.child(text.charAt(from));
+        Node match = null;
+        int j = from + 1;
+        while (node != null) {
+            if (node.placeholder != null) match = node;
+            if (j >= text.length()) break;
+            node = node.child(text.charAt(j++));
+        }
+        return match;
+    }
+
+    private static final class Node {
+
+        private final int depth;
+        private char[] chars = new char[0];
+        private Node[] next = new Node[0];
+        private VortexParserPlaceholder placeholder;
+
+        Node() {
+            this(0);
+        }
+
+        private Node(int depth) {
+            this.depth = depth;
+        }
+
+        Node child(char c) {
+            char[] cs = chars;
+            for (int i = 0; i < cs.length; i++) {
+                if (cs[i] == c) return next[i];
+            }
+            return null;
+        }
+
+        Node childOrCreate(char c) {
+            Node existing = child(c);
+            if (existing != null) return existing;
+
+            Node created = new Node(depth + 1);
+            chars = Arrays.copyOf(chars, chars.length + 1);
+            next = Arrays.copyOf(next, next.length + 1);
+            chars[chars.length - 1] = c;
+            next[next.length - 1] = created;
+            return created;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package fr.vortex.parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Copy-on-write placeholder set. Readers only dereference the current {@link Snapshot}, never lock;
+ * writers build a new snapshot, including its {@link PlaceholderMatcher}, and publish it atomically.
+ * <p>
+ * Each placeholder string is held once: registering another placeholder with the same string replaces it.
+ * Placeholders should be fully configured (delimiters included) before being registered.
+ */
+final class PlaceholderRegistry {
+
+    private final AtomicReference<Snapshot> current;
+
+    PlaceholderRegistry(List<VortexParserPlaceholder> initial) {
+        Snapshot snapshot = Snapshot.EMPTY;
+        for (VortexParserPlaceholder placeholder : initial) {
+            Snapshot next = snapshot.with(placeholder);
+            if (next != null) snapshot = next;
+        }
+        this.current = new AtomicReference<>(snapshot);
+    }
+
+    Snapshot snapshot() {
+        return current.get();
+    }
+
+    boolean add(VortexParserPlaceholder placeholder) {
+        while (true) {
+            Snapshot snapshot = current.get();
+            Snapshot next = snapshot.with(placeholder);
+            if (next == null) return false;
+            if (current.compareAndSet(snapshot, next)) return true;
+        }
+    }
+
+    boolean remove(String placeholderString) {
+        while (true) {
+            Snapshot snapshot = current.get();
+            Snapshot next = snapshot.without(placeholderString);
+            if (next == null) return false;
+            if (current.compareAndSet(snapshot, next)) return true;
+        }
+    }
+
+    record Snapshot(List<VortexParserPlaceholder> placeholders, Map<String, VortexParserPlaceholder> byString,
+                    PlaceholderMatcher matcher) {
+
+        static final Snapshot EMPTY = new Snapshot(List.of(), Map.of(), PlaceholderMatcher.EMPTY);
+
+        /** Returns the snapshot with {@code placeholder} added, or {@code null} when it is already registered. */
+        Snapshot with(VortexParserPlaceholder placeholder) {
+            String keyString = placeholder.getPlaceholderString();
+            VortexParserPlaceholder existing = byString.get(keyString);
+            if (existing == placeholder) return null;
+
+            List<VortexParserPlaceholder> list = new ArrayList<>(placeholders);
+            if (existing != null) list.set(list.indexOf(existing), placeholder);
+            else list.add(placeholder);
+            return of(list);
+        }
+
+        /** Returns the snapshot without the placeholder string, or {@code null} when it is not registered. */
+        Snapshot without(String placeholderString) {
+            VortexParserPlaceholder existing = byString.get(placeholderString);
+            if (existing == null) return null;
+
+            List<VortexParserPlaceholder> list = new ArrayList<>(placeholders);
+            list.remove(existing);
+            return of(list);
+        }
+
+        private static Snapshot of(List<VortexParserPlaceholder> list) {
+            Map<String, VortexParserPlaceholder> map = new HashMap<>();
+            for (VortexParserPlaceholder placeholder : list) map.put(placeholder.getPlaceholderString(), placeholder);
+            return new Snapshot(Collections.unmodifiableList(list), Collections.unmodifiableMap(map), PlaceholderMatcher.of(list));
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package fr.vortex.parser;
+
+import java.time.Duration;
+
+/**
+ * When the cached value of a {@link VortexParserPlaceholder} is refreshed.
+ * <p>
+ * Apart from {@link #always()} on a synchronous placeholder, a refresh never blocks rendering:
+ * the last value is used while a new one is computed in the background.
+ */
+public record RefreshPolicy(Mode mode, Duration ttl) {
+
+    private static final RefreshPolicy ALWAYS = new RefreshPolicy(Mode.ALWAYS, Duration.ZERO);
+    private static final RefreshPolicy TICK = new RefreshPolicy(Mode.TICK, Duration.ZERO);
+    private static final RefreshPolicy ON_DEMAND = new RefreshPolicy(Mode.ON_DEMAND, Duration.ZERO);
+
+    public RefreshPolicy {
+        if (mode == null) throw new IllegalArgumentException("mode required");
+        if (ttl == null || ttl.isNegative() || mode == Mode.TTL && ttl.isZero()) {
+            throw new IllegalArgumentException("ttl must be positive");
+        }
+    }
+
+    /** Resolves on every render; asynchronous placeholders start a refresh on every render. */
+    public static RefreshPolicy always() {
+        return ALWAYS;
+    }
+
+    /** Keeps a value for {@code ttl}, then refreshes it in the background on the next render. */
+    public static RefreshPolicy expireAfter(Duration ttl) {
+        return new RefreshPolicy(Mode.TTL, ttl);
+    }
+
+    /** Keeps a value until the next {@link VortexParser#tick()}. */
+    public static RefreshPolicy perTick() {
+        return TICK;
+    }
+
+    /** Keeps a value until {@link VortexParserPlaceholder#invalidate()} is called. */
+    public static RefreshPolicy onDemand() {
+        return ON_DEMAND;
+    }
+
+    public enum Mode {
+        ALWAYS, TTL, TICK, ON_DEMAND
+    }
+}
@@ -1,89 +1,462 @@
 package fr.vortex.parser;
 
 import fr.vortex.parser.builders.VortexParserBuilder;
+import fr.vortex.parser.cache.CacheStats;
+import fr.vortex.parser.cache.RenderCache;
+import fr.vortex.parser.intern.ComponentInterner;
+import fr.vortex.parser.metrics.ParserMetrics;
+import fr.vortex.parser.metrics.ParserStage;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.Accessors;
 import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.TextColor;
 import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.minimessage.tag.Tag;
+import net.kyori.adventure.text.minimessage.tag.resolver.TagResolver;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
-/**
- * @param legacyChar
- * @param miniMessageStrict
- */
-public record VortexParser(char legacyChar, String legacyDefaultColor, boolean stripUnknownLegacy,
-                           boolean miniMessageStrict, boolean stripUnknownTags, List<VortexParserPlaceholder> placeholders) {
+@Getter
+@Accessors(fluent = true)
+public final class VortexParser {
+
+    private static final Logger log = Logger.getLogger(VortexParser.class.getName());
+
+    private static final String SLOT_TAG_PREFIX = "vortex_slot_";
+    private static final String HOVER_TEXT = "<hover:show_text:";
+    private static final int BULK_CHUNK = 64;
+
+    private static final VortexParserPlaceholder[] NO_SLOTS = new VortexParserPlaceholder[0];
+
+    private final char legacyChar;
+    private final String legacyDefaultColor;
+    private final boolean stripUnknownLegacy;
+    private final boolean miniMessageStrict;
+    private final boolean stripUnknownTags;
+    private final VortexSerializer serializer;
+
+    @Getter(AccessLevel.NONE)
+    private final MiniMessage miniMessage;
+    @Getter(AccessLevel.NONE)
+    private final MiniMessage slotMiniMessage;
+    @Getter(AccessLevel.NONE)
+    private final String slotTag;
+    @Getter(AccessLevel.NONE)
+    private final LegacyLexer legacyLexer;
+    @Getter(AccessLevel.NONE)
+    private final MarkupScanner markupScanner;
+    @Getter(AccessLevel.NONE)
+    private final TextColor defaultColor;
+    @Getter(AccessLevel.NONE)
+    private final PlaceholderRegistry registry;
+    @Getter(AccessLevel.NONE)
+    private final RenderCache renderCache;
+    @Getter(AccessLevel.NONE)
+    private final ComponentInterner interner;
+    @Getter(AccessLevel.NONE)
+    private final Executor executor;
+    @Getter(AccessLevel.NONE)
+    private final ParserMetrics metrics;
+    @Getter(AccessLevel.NONE)
+    private final long slowPlaceholderNanos;
+
+    public VortexParser(char legacyChar, String legacyDefaultColor, boolean stripUnknownLegacy,
+                        boolean miniMessageStrict, boolean stripUnknownTags, List<VortexParserPlaceholder> placeholders) {
+        this(settings(legacyChar, legacyDefaultColor, stripUnknownLegacy, miniMessageStrict, stripUnknownTags), placeholders);
+    }
+
+    public VortexParser(VortexParserBuilder builder) {
+        this(builder, builder.getPlaceholders());
+    }
+
+    private VortexParser(VortexParserBuilder settings, List<VortexParserPlaceholder> placeholders) {
+        this.legacyChar = settings.getLegacyChar();
+        this.legacyDefaultColor = settings.getLegacyDefaultColor();
+        this.stripUnknownLegacy = settings.isStripUnknownLegacy();
+        this.miniMessageStrict = settings.isMiniMessageStrict();
+        this.stripUnknownTags = settings.isStripUnknownTags();
+        this.registry = new PlaceholderRegistry(placeholders);
+        this.legacyLexer = new LegacyLexer(legacyChar, stripUnknownLegacy);
+        this.defaultColor = LegacyLexer.color(legacyDefaultColor);
+        this.markupScanner = new MarkupScanner(legacyLexer, defaultColor);
+        this.renderCache = settings.getCacheSize() > 0 ? new RenderCache(settings.getCacheSize()) : null;
+        this.interner = settings.getInterner();
+        this.executor = settings.getExecutor() != null ? settings.getExecutor() : ForkJoinPool.commonPool();
+        this.metrics = settings.getMetrics();
+        this.slowPlaceholderNanos = settings.getSlowPlaceholderThreshold().toNanos();
+        this.miniMessage = MiniMessage.builder().strict(miniMessageStrict).build();
+        // Only known to compile(), under a name no input can guess, so parse() never produces a slot
+        this.slotTag = SLOT_TAG_PREFIX + Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+        this.slotMiniMessage = MiniMessage.builder()
+                .strict(miniMessageStrict)
+                .tags(TagResolver.resolver(TagResolver.standard(), TagResolver.resolver(slotTag, (args, ctx) ->
+                        Tag.selfClosingInserting(Component.virtual(Void.class, new CompiledMessage.Slot(args.popOr("slot index expected").asInt().orElse(0)))))))
+                .build();
+        this.serializer = new VortexSerializer(miniMessage, legacyChar);
+    }
+
+    private static VortexParserBuilder settings(char legacyChar, String legacyDefaultColor, boolean stripUnknownLegacy,
+                                                boolean miniMessageStrict, boolean stripUnknownTags) {
+        VortexParserBuilder settings = new VortexParserBuilder();
+        settings.setLegacyChar(legacyChar);
+        settings.setLegacyDefaultColor(legacyDefaultColor);
+        settings.setStripUnknownLegacy(stripUnknownLegacy);
+        settings.setMiniMessageStrict(miniMessageStrict);
+        settings.setStripUnknownTags(stripUnknownTags);
+        return settings;
+    }
 
     public static VortexParserBuilder builder() {
         return new VortexParserBuilder();
     }
 
+    /**
+     * Current placeholders, as an immutable snapshot.
+     */
+    public List<VortexParserPlaceholder> placeholders() {
+        return registry.snapshot().placeholders();
+    }
+
+    /**
+     * Registers {@code placeholder}, replacing any placeholder with the same placeholder string.
+     * Safe to call while other threads are rendering; they see either the old or the new set.
+     */
     public VortexParser addPlaceholder(VortexParserPlaceholder placeholder) {
-        if (placeholder != null) placeholders.add(placeholder);
+        if (placeholder != null && registry.add(placeholder) && renderCache != null) renderCache.clear();
+        return this;
+    }
+
+    public VortexParser removePlaceholder(VortexParserPlaceholder placeholder) {
+        if (placeholder != null) removePlaceholder(placeholder.getPlaceholderString());
+        return this;
+    }
+
+    public VortexParser removePlaceholder(String placeholderString) {
+        if (placeholderString != null && registry.remove(placeholderString) && renderCache != null) renderCache.clear();
         return this;
     }
 
+    /**
+     * Marks the value of every {@link RefreshPolicy#perTick()} placeholder as stale.
+     */
+    public void tick() {
+        for (VortexParserPlaceholder placeholder : registry.snapshot().placeholders()) {
+            if (placeholder.getRefresh().mode() == RefreshPolicy.Mode.TICK) placeholder.invalidate();
+        }
+    }
+
     public Component parse(String text) {
+        return parse(text, null);
+    }
+
+    public Component parse(String text, Object context) {
         if (text == null || text.isEmpty()) return Component.text("");
+        if (metrics != null) return parseMeasured(text, context);
+        return parseResolved(applyPlaceholders(text, context));
+    }
 
-        String processed = processLegacy(text);
-        processed = processMiniMessage(processed);
-        processed = applyPlaceholders(processed);
+    /**
+     * Parses text whose placeholders are already applied, through the render cache if there is one.
+     */
+    Component parseResolved(String processed) {
+        if (renderCache == null) return deserialize(processed, miniMessage);
 
-        MiniMessage miniMessage = MiniMessage.builder()
-                .strict(miniMessageStrict)
-                .build();
+        Component cached = renderCache.get(processed);
+        if (cached != null) return cached;
 
-        return miniMessage.deserialize(processed);
+        Component component = shared(deserialize(processed, miniMessage));
+        renderCache.put(processed, component);
+        return component;
     }
 
-    public String from(Component component) {
-        if (component == null) return "";
+    private Component parseMeasured(String text, Object context) {
+        long start = System.nanoTime();
+        String processed = applyPlaceholders(text, context);
+        metrics.onStage(ParserStage.PLACEHOLDERS, System.nanoTime() - start);
 
-        MiniMessage miniMessage = MiniMessage.builder()
-                .strict(miniMessageStrict)
-                .build();
+        Component component = renderCache == null ? null : renderCache.get(processed);
+        if (renderCache != null) metrics.onCacheLookup(component != null);
+        if (component == null) {
+            component = deserialize(processed, miniMessage);
+            if (renderCache != null) {
+                component = shared(component);
+                renderCache.put(processed, component);
+            }
+        }
+
+        metrics.onParse(System.nanoTime() - start);
+        return component;
+    }
 
-        String text = miniMessage.serialize(component);
+    /**
+     * Parses every text on the configured executor and returns the components in input order.
+     * An entry that fails to parse is logged and kept as plain text; it never aborts the others.
+     */
+    public List<Component> parseAll(Collection<String> texts) {
+        String[] input = texts.toArray(new String[0]);
+        Component[] output = new Component[input.length];
 
-        text = revertLegacy(text);
+        if (input.length <= BULK_CHUNK) {
+            parseRange(input, output, 0, input.length);
+            return Arrays.asList(output);
+        }
 
-        return text;
+        List<CompletableFuture<Void>> chunks = new ArrayList<>(input.length / BULK_CHUNK + 1);
+        for (int from = 0; from < input.length; from += BULK_CHUNK) {
+            int start = from;
+            int end = Math.min(input.length, from + BULK_CHUNK);
+            chunks.add(CompletableFuture.runAsync(() -> parseRange(input, output, start, end), executor));
+        }
+        CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).join();
+        return Arrays.asList(output);
     }
 
-    private String applyPlaceholders(String text) {
-        for (VortexParserPlaceholder placeholder : placeholders) {
-            String keyString = placeholder.getPlaceholderString();
-            String replacement = placeholder.getReplacer().get();
-            if (replacement == null) replacement = "";
-            text = text.replace(keyString, replacement);
+    public <K> Map<K, Component> parseAll(Map<K, String> texts) {
+        List<K> keys = new ArrayList<>(texts.keySet());
+        List<String> values = new ArrayList<>(keys.size());
+        for (K key : keys) values.add(texts.get(key));
+
+        List<Component> parsed = parseAll(values);
+        Map<K, Component> out = new LinkedHashMap<>(Math.max(16, (int) (keys.size() / 0.75f) + 1));
+        for (int i = 0; i < keys.size(); i++) {
+            out.put(keys.get(i), parsed.get(i));
         }
-        return text;
+        return out;
     }
 
-    private String processLegacy(String text) {
-        if (text == null || text.isEmpty()) return "";
+    private void parseRange(String[] input, Component[] output, int from, int to) {
+        for (int i = from; i < to; i++) {
+            try {
+                output[i] = parse(input[i]);
+            } catch (RuntimeException e) {
+                log.log(Level.WARNING, "Failed to parse \"" + input[i] + "\"", e);
+                output[i] = Component.text(input[i]);
+            }
+        }
+    }
+
+    public CacheStats cacheStats() {
+        return renderCache == null ? CacheStats.EMPTY : renderCache.stats();
+    }
 
-        text = text.replace('&', legacyChar);
+    /**
+     * Parses {@code text} once into a reusable template whose placeholders are left as slots.
+     * Placeholders registered after this call are not picked up by the returned template.
+     * <p>
+     * Rendering gives the same result as {@link #parse(String, Object)}. A template with a placeholder inside
+     * a tag argument other than hover text, such as a click command, is parsed again on every render.
+     */
+    public CompiledMessage compile(String text) {
+        if (text == null || text.isEmpty()) return new CompiledMessage(this, Component.text(""), false, new String[]{""}, new int[0], NO_SLOTS);
+
+        List<VortexParserPlaceholder> found = new ArrayList<>();
+        String[] pieces = registry.snapshot().matcher().split(text, found);
+        if (found.isEmpty()) return new CompiledMessage(this, shared(deserialize(text, miniMessage)), false, pieces, new int[0], NO_SLOTS);
+
+        // One slot per distinct placeholder, however many times it occurs
+        List<VortexParserPlaceholder> slots = new ArrayList<>();
+        int[] slotOf = new int[found.size()];
+        StringBuilder marked = new StringBuilder(text.length() + found.size() * 32).append(pieces[0]);
+        for (int k = 0; k < slotOf.length; k++) {
+            int slot = slots.indexOf(found.get(k));
+            if (slot < 0) {
+                slot = slots.size();
+                slots.add(found.get(k));
+            }
+            slotOf[k] = slot;
+            marked.append('<').append(slotTag).append(':').append(slot).append('>').append(pieces[k + 1]);
+        }
+
+        VortexParserPlaceholder[] slotArray = slots.toArray(NO_SLOTS);
+        String processed = marked.toString();
+        if (hasSlotInArgument(processed, 0, processed.length())) {
+            return new CompiledMessage(this, parseResolved(String.join("", pieces)), true, pieces, slotOf, slotArray);
+        }
+        return new CompiledMessage(this, shared(deserialize(processed, slotMiniMessage)), false, pieces, slotOf, slotArray);
+    }
+
+    /**
+     * A static template showing {@code text} as it is: markup, legacy codes and placeholders are not read.
+     * Only the default legacy color applies, as it would to any text.
+     */
+    public CompiledMessage literal(String text) {
+        Component component = Component.text(text == null ? "" : text);
+        if (defaultColor != null) component = component.color(defaultColor);
+        return new CompiledMessage(this, component, false, new String[]{text == null ? "" : text}, new int[0], NO_SLOTS);
+    }
 
-        if (stripUnknownLegacy) {
-            text = text.replaceAll("(?i)" + legacyChar + "[^0-9A-FK-OR]", "");
+    /**
+     * Whether a slot tag of {@code text} between {@code from} and {@code to} sits inside the argument of
+     * another tag, where MiniMessage keeps it as plain text. Slots in hover text are parsed as components.
+     */
+    private boolean hasSlotInArgument(String text, int from, int to) {
+        String slotStart = "<" + slotTag + ":";
+        int i = from;
+        while (i < to) {
+            char ch = text.charAt(i);
+            if (ch == '\\' && i + 1 < to) {
+                i += 2;
+                continue;
+            }
+            if (ch != '<' || text.startsWith(slotStart, i)) {
+                i++;
+                continue;
+            }
+            int end = LegacyLexer.tagEnd(text, i);
+            if (end < 0 || end > to) {
+                i++;
+                continue;
+            }
+            int slot = text.indexOf(slotStart, i + 1);
+            if (slot >= 0 && slot < end) {
+                if (!text.startsWith(HOVER_TEXT, i)) return true;
+                int arg = i + HOVER_TEXT.length();
+                char quote = text.charAt(arg);
+                boolean quoted = (quote == '\'' || quote == '"') && text.charAt(end - 2) == quote;
+                if (!quoted || hasSlotInArgument(text, arg + 1, end - 2)) return true;
+            }
+            i = end;
         }
+        return false;
+    }
+
+    /**
+     * Renders {@code template} for every viewer, parsing it once and building one component
+     * per distinct set of placeholder values. Viewers resolving to the same values share the same instance.
+     */
+    public <C> Map<C, Component> renderForAll(String template, Collection<? extends C> viewers) {
+        return compile(template).renderForAll(viewers);
+    }
+
+    /**
+     * Applies placeholders and removes every legacy code and MiniMessage tag, without building a component.
+     * Tags whose text is only known to the client or server ({@code <lang>}, {@code <key>}, {@code <selector>},
+     * {@code <score>}, {@code <nbt>}) are removed along with the rest and contribute no text.
+     */
+    public String stripFormatting(String text) {
+        return stripFormatting(text, null);
+    }
+
+    public String stripFormatting(String text, Object context) {
+        if (text == null || text.isEmpty()) return "";
+        return markupScanner.strip(applyPlaceholders(text, context));
+    }
+
+    /**
+     * Number of visible code points once placeholders are applied and formatting is removed. Like
+     * {@link #stripFormatting(String)}, it counts nothing for translated, keybind, selector, score and NBT
+     * tags, so it is a lower bound for text using them.
+     */
+    public int plainLength(String text) {
+        return plainLength(text, null);
+    }
 
-        if (!text.isEmpty() && text.charAt(0) != legacyChar) {
-            text = legacyChar + legacyDefaultColor.charAt(0) + text;
+    public int plainLength(String text, Object context) {
+        if (text == null || text.isEmpty()) return 0;
+        return markupScanner.plainLength(applyPlaceholders(text, context));
+    }
+
+    /**
+     * Translates formatting to ANSI escape codes for console output, without building a component.
+     */
+    public String toAnsi(String text) {
+        return toAnsi(text, null);
+    }
+
+    public String toAnsi(String text, Object context) {
+        if (text == null || text.isEmpty()) return "";
+        return markupScanner.toAnsi(applyPlaceholders(text, context));
+    }
+
+    public String from(Component component) {
+        return serializer.toMiniMessage(component);
+    }
+
+    public String fromLegacy(Component component) {
+        return serializer.toLegacy(component);
+    }
+
+    /**
+     * Whether {@code value} of a {@link VortexParserPlaceholder.Type#MARKUP} slot holds anything
+     * {@link #parse} would read as formatting, or that could combine with the text around it.
+     */
+    boolean isMarkup(String value) {
+        if (value == null) return false;
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            if (ch == '<' || ch == '>' || ch == '\\' || ch == '&' || ch == legacyChar) return true;
         }
+        return false;
+    }
 
-        return text;
+    Component slotValue(VortexParserPlaceholder placeholder, String value) {
+        if (value == null || value.isEmpty()) return Component.empty();
+        if (placeholder.getType() == VortexParserPlaceholder.Type.MINIMESSAGE) return miniMessage.deserialize(value);
+        return Component.text(value);
     }
 
-    private String processMiniMessage(String text) {
-        return text;
+    void appendSlotJson(VortexParserPlaceholder placeholder, String value, StringBuilder out) {
+        if (placeholder.getType() == VortexParserPlaceholder.Type.MINIMESSAGE && value != null && !value.isEmpty()) {
+            serializer.appendJson(miniMessage.deserialize(value), out);
+            return;
+        }
+        // Gson's compact form of an unstyled text component
+        VortexSerializer.appendJsonString(value == null ? "" : value, out);
     }
 
-    private String revertLegacy(String text) {
-        if (legacyChar != '§') {
-            text = text.replace(legacyChar, '&');
+    /**
+     * Text without MiniMessage markup is built straight from its legacy codes; anything else has its
+     * legacy codes rewritten as MiniMessage tags and goes through MiniMessage once.
+     */
+    private Component deserialize(String text, MiniMessage miniMessage) {
+        Component component;
+        if (metrics == null) {
+            component = text.indexOf('<') < 0
+                    ? legacyLexer.toComponent(text)
+                    : miniMessage.deserialize(legacyLexer.toMiniMessage(text));
+        } else if (text.indexOf('<') < 0) {
+            long start = System.nanoTime();
+            component = legacyLexer.toComponent(text);
+            metrics.onStage(ParserStage.LEGACY, System.nanoTime() - start);
+        } else {
+            long start = System.nanoTime();
+            String markup = legacyLexer.toMiniMessage(text);
+            long lexed = System.nanoTime();
+            metrics.onStage(ParserStage.LEGACY, lexed - start);
+            component = miniMessage.deserialize(markup);
+            metrics.onStage(ParserStage.MINIMESSAGE, System.nanoTime() - lexed);
         }
-        return text;
+        return defaultColor == null ? component : component.colorIfAbsent(defaultColor);
+    }
+
+    private Component shared(Component component) {
+        return interner == null ? component : interner.intern(component);
+    }
+
+    private String applyPlaceholders(String text, Object context) {
+        return registry.snapshot().matcher().replace(text, placeholder -> resolve(placeholder, context));
+    }
+
+    String resolve(VortexParserPlaceholder placeholder, Object context) {
+        if (metrics == null) return placeholder.resolve(context);
+
+        long start = System.nanoTime();
+        String value = placeholder.resolve(context);
+        long elapsed = System.nanoTime() - start;
+        metrics.onPlaceholder(placeholder.getKey(), elapsed);
+        if (elapsed > slowPlaceholderNanos) metrics.onSlowPlaceholder(placeholder.getKey(), elapsed);
+        return value;
     }
-}
\ No newline at end of file
+}
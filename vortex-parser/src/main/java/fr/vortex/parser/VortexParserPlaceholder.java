@@ -1,25 +1,79 @@
 package fr.vortex.parser;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 @Getter
 public class VortexParserPlaceholder {
 
+    private static final Logger log = Logger.getLogger(VortexParserPlaceholder.class.getName());
+
+    /** How long a refresh may run under a policy without a TTL before it is abandoned. */
+    private static final Duration REFRESH_TIMEOUT = Duration.ofSeconds(30);
+
     private final String key;
     private final Supplier<String> replacer;
+    private final Supplier<CompletableFuture<String>> asyncReplacer;
+    private final Class<?> contextType;
+    private final Function<Object, String> contextReplacer;
 
     private String entryReplacer = "<";
     private String finalReplacer = ">";
+    private Type type = Type.MARKUP;
+    private RefreshPolicy refresh = RefreshPolicy.always();
+    private Executor executor;
+
+    @Getter(AccessLevel.NONE)
+    private volatile Cached cached;
+    @Getter(AccessLevel.NONE)
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    @Getter(AccessLevel.NONE)
+    private final AtomicLong generation = new AtomicLong();
 
-    private VortexParserPlaceholder(String key, Supplier<String> replacer) {
+    private VortexParserPlaceholder(String key, Supplier<String> replacer, Supplier<CompletableFuture<String>> asyncReplacer,
+                                    Class<?> contextType, Function<Object, String> contextReplacer) {
         this.key = key;
         this.replacer = replacer;
+        this.asyncReplacer = asyncReplacer;
+        this.contextType = contextType;
+        this.contextReplacer = contextReplacer;
     }
 
     public static VortexParserPlaceholder create(String key, Supplier<String> replacer) {
-        return new VortexParserPlaceholder(key, replacer);
+        return new VortexParserPlaceholder(key, replacer, null, null, null);
+    }
+
+    /**
+     * Creates a placeholder resolved against the viewer passed to {@link VortexParser#parse(String, Object)}
+     * or {@link CompiledMessage#render(Object)}. Rendering without a viewer of {@code contextType} yields an empty value.
+     * Contextual values are never cached.
+     */
+    @SuppressWarnings("unchecked")
+    public static <C> VortexParserPlaceholder create(String key, Class<C> contextType, Function<? super C, String> replacer) {
+        Function<Object, String> contextReplacer = context -> replacer.apply((C) context);
+        return new VortexParserPlaceholder(key, () -> null, null, contextType, contextReplacer);
+    }
+
+    /**
+     * Creates a placeholder whose value is produced asynchronously. Rendering never waits for it:
+     * the last completed value is used, and nothing until the first one completes. A future that does not
+     * complete within the TTL, or 30 seconds without one, is abandoned and the next render asks for another.
+     */
+    public static VortexParserPlaceholder createAsync(String key, Supplier<CompletableFuture<String>> replacer) {
+        return new VortexParserPlaceholder(key, () -> null, replacer, null, null);
     }
 
     public VortexParserPlaceholder setEntryReplacer(String entry) {
@@ -32,7 +86,132 @@ public class VortexParserPlaceholder {
         return this;
     }
 
+    public VortexParserPlaceholder setType(Type type) {
+        if (type != null) this.type = type;
+        return this;
+    }
+
+    /**
+     * With any policy but {@link RefreshPolicy#always()}, the first render of a synchronous placeholder still
+     * runs the supplier on the rendering thread, as there is no value to fall back on yet; later renders
+     * only refresh it in the background.
+     */
+    public VortexParserPlaceholder setRefresh(RefreshPolicy refresh) {
+        if (refresh != null) this.refresh = refresh;
+        return this;
+    }
+
+    /**
+     * Executor running background refreshes of a synchronous supplier. Defaults to a shared virtual-thread executor.
+     */
+    public VortexParserPlaceholder setExecutor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * Marks the cached value as stale; the next render keeps using it and starts a background refresh.
+     * A refresh already running when this is called does not make the value fresh again.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    public boolean isContextual() {
+        return contextReplacer != null;
+    }
+
+    public boolean isAsync() {
+        return asyncReplacer != null;
+    }
+
+    public String resolve(Object context) {
+        if (contextReplacer != null) return contextType.isInstance(context) ? contextReplacer.apply(context) : null;
+        if (asyncReplacer == null && refresh.mode() == RefreshPolicy.Mode.ALWAYS) return replacer.get();
+        return cachedValue();
+    }
+
     public String getPlaceholderString() {
         return entryReplacer + key + finalReplacer;
     }
+
+    private String cachedValue() {
+        Cached current = cached;
+        if (current != null && isFresh(current)) return current.value();
+
+        if (current == null && asyncReplacer == null) {
+            long started = generation.get();
+            String value = replacer.get();
+            cached = new Cached(value, System.nanoTime(), started);
+            return value;
+        }
+
+        refresh();
+        return current == null ? null : current.value();
+    }
+
+    private boolean isFresh(Cached current) {
+        if (current.generation() != generation.get()) return false;
+        return switch (refresh.mode()) {
+            case ALWAYS -> false;
+            case TTL -> System.nanoTime() - current.loadedAt() < refresh.ttl().toNanos();
+            case TICK, ON_DEMAND -> true;
+        };
+    }
+
+    private void refresh() {
+        if (!refreshing.compareAndSet(false, true)) return;
+
+        long started = generation.get();
+        CompletableFuture<String> future;
+        try {
+            future = asyncReplacer != null
+                    ? asyncReplacer.get()
+                    : CompletableFuture.supplyAsync(replacer, executor != null ? executor : Refreshers.EXECUTOR);
+        } catch (RuntimeException e) {
+            refreshing.set(false);
+            log.log(Level.WARNING, "Failed to refresh placeholder " + key, e);
+            return;
+        }
+        if (future == null) {
+            refreshing.set(false);
+            log.warning("Async placeholder " + key + " returned no future");
+            return;
+        }
+
+        Duration timeout = refresh.mode() == RefreshPolicy.Mode.TTL ? refresh.ttl() : REFRESH_TIMEOUT;
+        // On a copy, so the supplier's own future is left alone when the wait times out
+        future.copy().orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS).whenComplete((value, error) -> {
+            if (error == null) {
+                cached = new Cached(value, System.nanoTime(), started);
+            } else {
+                log.log(Level.WARNING, "Failed to refresh placeholder " + key, error);
+            }
+            refreshing.set(false);
+        });
+    }
+
+    /**
+     * {@code generation} is the invalidation count when the value was requested; the value is stale once it moved on.
+     */
+    private record Cached(String value, long loadedAt, long generation) {
+    }
+
+    private static final class Refreshers {
+        private static final ExecutorService EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    /**
+     * How the value of this placeholder is inserted into a {@link CompiledMessage} slot.
+     * {@link VortexParser#parse} always writes values into the text before reading it, which is what
+     * {@link #MARKUP} matches.
+     */
+    public enum Type {
+        /** The value is read in place like the rest of the text, legacy codes and tags included. */
+        MARKUP,
+        /** The value is inserted as literal text. */
+        TEXT,
+        /** The value is deserialized as MiniMessage before being inserted. */
+        MINIMESSAGE
+    }
 }
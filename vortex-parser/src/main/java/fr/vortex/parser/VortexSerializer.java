@@ -0,0 +1,270 @@
+package fr.vortex.parser;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.VirtualComponent;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.Style;
+import net.kyori.adventure.text.format.TextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
+
+import java.util.List;
+
+/**
+ * Serializes components back to MiniMessage, legacy {@code &} text or chat JSON in a single walk over the tree.
+ * <p>
+ * Obtained from {@code VortexParser.serializer()}; it shares the parser's MiniMessage instance, which
+ * is only used for trees this visitor does not emit itself (non-text components, events, fonts).
+ */
+public final class VortexSerializer {
+
+    private static final TextDecoration[] DECORATIONS = TextDecoration.values();
+    private static final char[] DECORATION_CODES = new char[DECORATIONS.length];
+
+    static {
+        for (TextDecoration decoration : DECORATIONS) {
+            DECORATION_CODES[decoration.ordinal()] = switch (decoration) {
+                case OBFUSCATED -> 'k';
+                case BOLD -> 'l';
+                case STRIKETHROUGH -> 'm';
+                case UNDERLINED -> 'n';
+                case ITALIC -> 'o';
+            };
+        }
+    }
+
+    /** Decorations in the order the Gson serializer writes them. */
+    private static final TextDecoration[] JSON_DECORATIONS = {TextDecoration.BOLD, TextDecoration.ITALIC,
+            TextDecoration.UNDERLINED, TextDecoration.STRIKETHROUGH, TextDecoration.OBFUSCATED};
+
+    private static final GsonComponentSerializer GSON = GsonComponentSerializer.gson();
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final MiniMessage miniMessage;
+    private final char legacyChar;
+
+    VortexSerializer(MiniMessage miniMessage, char legacyChar) {
+        this.miniMessage = miniMessage;
+        this.legacyChar = legacyChar;
+    }
+
+    public String toMiniMessage(Component component) {
+        if (component == null) return "";
+        StringBuilder out = new StringBuilder(64);
+        appendMiniMessage(component, out);
+        return out.toString();
+    }
+
+    public String toLegacy(Component component) {
+        if (component == null) return "";
+        StringBuilder out = new StringBuilder(64);
+        appendLegacy(component, out);
+        return out.toString();
+    }
+
+    /**
+     * Chat JSON in the latest wire format, as sent in packets.
+     */
+    public String toJson(Component component) {
+        if (component == null) return "\"\"";
+        if (!isPlain(component)) return GSON.serialize(component);
+        StringBuilder out = new StringBuilder(64);
+        appendJsonTree(component, out);
+        return out.toString();
+    }
+
+    /**
+     * Same output as {@link #toJson}. Text with only colors and decorations is written straight into
+     * {@code out}; other trees are serialized by Gson first.
+     */
+    public void appendJson(Component component, StringBuilder out) {
+        if (component == null) out.append("\"\"");
+        else if (isPlain(component)) appendJsonTree(component, out);
+        else out.append(GSON.serialize(component));
+    }
+
+    public void appendMiniMessage(Component component, StringBuilder out) {
+        if (isPlain(component)) appendTree(component, out);
+        else appendText(out, miniMessage.serialize(component), false);
+    }
+
+    public void appendLegacy(Component component, StringBuilder out) {
+        new LegacyWriter(out).append(component, null, 0);
+    }
+
+    private void appendTree(Component component, StringBuilder out) {
+        TextComponent text = (TextComponent) component;
+        Style style = component.style();
+        TextColor color = style.color();
+        if (color != null) out.append('<').append(colorTag(color)).append('>');
+        for (TextDecoration decoration : DECORATIONS) {
+            TextDecoration.State state = style.decoration(decoration);
+            if (state == TextDecoration.State.TRUE) out.append('<').append(TextDecoration.NAMES.key(decoration)).append('>');
+            else if (state == TextDecoration.State.FALSE) out.append("<!").append(TextDecoration.NAMES.key(decoration)).append('>');
+        }
+
+        appendText(out, text.content(), true);
+
+        List<Component> children = component.children();
+        for (int i = 0; i < children.size(); i++) {
+            appendTree(children.get(i), out);
+        }
+
+        for (int i = DECORATIONS.length - 1; i >= 0; i--) {
+            TextDecoration.State state = style.decoration(DECORATIONS[i]);
+            if (state == TextDecoration.State.TRUE) out.append("</").append(TextDecoration.NAMES.key(DECORATIONS[i])).append('>');
+            else if (state == TextDecoration.State.FALSE) out.append("</!").append(TextDecoration.NAMES.key(DECORATIONS[i])).append('>');
+        }
+        if (color != null) out.append("</").append(colorTag(color)).append('>');
+    }
+
+    /**
+     * Writes a tree accepted by {@link #isPlain} with the keys, key order and compact form Gson uses.
+     */
+    private static void appendJsonTree(Component component, StringBuilder out) {
+        String content = ((TextComponent) component).content();
+        Style style = component.style();
+        List<Component> children = component.children();
+        if (children.isEmpty() && style.isEmpty()) {
+            appendJsonString(content, out);
+            return;
+        }
+
+        out.append('{');
+        for (TextDecoration decoration : JSON_DECORATIONS) {
+            TextDecoration.State state = style.decoration(decoration);
+            if (state == TextDecoration.State.NOT_SET) continue;
+            out.append('"').append(TextDecoration.NAMES.key(decoration)).append("\":").append(state == TextDecoration.State.TRUE).append(',');
+        }
+        TextColor color = style.color();
+        if (color != null) {
+            NamedTextColor named = color instanceof NamedTextColor n ? n : NamedTextColor.namedColor(color.value());
+            out.append("\"color\":\"").append(named != null ? NamedTextColor.NAMES.key(named) : color.asHexString()).append("\",");
+        }
+        if (!children.isEmpty()) {
+            out.append("\"extra\":[");
+            for (int i = 0; i < children.size(); i++) {
+                if (i > 0) out.append(',');
+                appendJsonTree(children.get(i), out);
+            }
+            out.append("],");
+        }
+        out.append("\"text\":");
+        appendJsonString(content, out);
+        out.append('}');
+    }
+
+    /**
+     * Whether the tree only holds text with colors and decorations, which this visitor emits itself.
+     */
+    private static boolean isPlain(Component component) {
+        if (!(component instanceof TextComponent) || component instanceof VirtualComponent) return false;
+
+        Style style = component.style();
+        if (style.clickEvent() != null || style.hoverEvent() != null || style.insertion() != null
+                || style.font() != null || style.shadowColor() != null) return false;
+
+        List<Component> children = component.children();
+        for (int i = 0; i < children.size(); i++) {
+            if (!isPlain(children.get(i))) return false;
+        }
+        return true;
+    }
+
+    private static String colorTag(TextColor color) {
+        return color instanceof NamedTextColor named ? NamedTextColor.NAMES.key(named) : color.asHexString();
+    }
+
+    /**
+     * Appends {@code text}, escaping MiniMessage tag openers when {@code escape} is set and writing the
+     * configured legacy char back as {@code &}.
+     */
+    private void appendText(StringBuilder out, String text, boolean escape) {
+        boolean revert = legacyChar != '§';
+        if (!escape && !revert) {
+            out.append(text);
+            return;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (escape && (ch == '<' || ch == '\\')) out.append('\\').append(ch);
+            else if (revert && ch == legacyChar) out.append('&');
+            else out.append(ch);
+        }
+    }
+
+    /**
+     * Appends {@code text} as a quoted JSON string.
+     */
+    static void appendJsonString(String text, StringBuilder out) {
+        out.append('"');
+        int from = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char ch = text.charAt(i);
+            if (ch >= 0x20 && ch != '"' && ch != '\\' && ch != '\u2028' && ch != '\u2029') continue;
+            out.append(text, from, i);
+            switch (ch) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\t' -> out.append("\\t");
+                case '\b' -> out.append("\\b");
+                case '\f' -> out.append("\\f");
+                case '\r' -> out.append("\\r");
+                default -> out.append("\\u").append(HEX[ch >> 12 & 0xF]).append(HEX[ch >> 8 & 0xF])
+                        .append(HEX[ch >> 4 & 0xF]).append(HEX[ch & 0xF]);
+            }
+            from = i + 1;
+        }
+        out.append(text, from, text.length()).append('"');
+    }
+
+    private static final class LegacyWriter {
+
+        private final StringBuilder out;
+        private TextColor emittedColor;
+        private int emittedMask;
+
+        LegacyWriter(StringBuilder out) {
+            this.out = out;
+        }
+
+        void append(Component component, TextColor parentColor, int parentMask) {
+            Style style = component.style();
+            TextColor color = style.color() != null ? style.color() : parentColor;
+            int mask = parentMask;
+            for (TextDecoration decoration : DECORATIONS) {
+                TextDecoration.State state = style.decoration(decoration);
+                if (state == TextDecoration.State.TRUE) mask |= 1 << decoration.ordinal();
+                else if (state == TextDecoration.State.FALSE) mask &= ~(1 << decoration.ordinal());
+            }
+
+            if (component instanceof TextComponent text && !text.content().isEmpty()) {
+                emitStyle(color, mask);
+                out.append(text.content());
+            }
+
+            List<Component> children = component.children();
+            for (int i = 0; i < children.size(); i++) {
+                append(children.get(i), color, mask);
+            }
+        }
+
+        private void emitStyle(TextColor color, int mask) {
+            if (color != emittedColor && (color == null || !color.equals(emittedColor)) || (emittedMask & ~mask) != 0) {
+                if (color == null) out.append("&r");
+                else if (color instanceof NamedTextColor named) out.append('&').append(LegacyLexer.code(named));
+                else out.append("&#").append(color.asHexString(), 1, 7);
+                emittedMask = 0;
+            }
+            int added = mask & ~emittedMask;
+            for (int i = 0; added != 0; i++, added >>>= 1) {
+                if ((added & 1) != 0) out.append('&').append(DECORATION_CODES[i]);
+            }
+            emittedColor = color;
+            emittedMask = mask;
+        }
+    }
+}
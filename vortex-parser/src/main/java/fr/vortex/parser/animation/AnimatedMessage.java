@@ -0,0 +1,172 @@
+package fr.vortex.parser.animation;
+
+import fr.vortex.parser.CompiledMessage;
+import fr.vortex.parser.VortexParser;
+import net.kyori.adventure.text.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
+
+/**
+ * Frame sequence compiled once through a {@link VortexParser}, so animating a title, boss bar or
+ * scoreboard line each tick is an index lookup instead of a parse.
+ * <p>
+ * Frames are compiled on first use. Sequences of at most {@code maxCachedFrames} frames keep every
+ * frame; longer ones keep the most recently used {@code maxCachedFrames} and regenerate the others.
+ * Frames are {@link CompiledMessage}s, so placeholders keep being filled in per render.
+ */
+public final class AnimatedMessage {
+
+    private final int frameCount;
+    private final int ticksPerFrame;
+    private final IntFunction<CompiledMessage> generator;
+
+    private final AtomicReferenceArray<CompiledMessage> frames;
+    private final Map<Integer, CompiledMessage> recent;
+
+    private AnimatedMessage(Builder b) {
+        this.frameCount = b.frameCount;
+        this.ticksPerFrame = b.ticksPerFrame;
+        this.generator = b.generator;
+        if (frameCount <= b.maxCachedFrames) {
+            this.frames = new AtomicReferenceArray<>(frameCount);
+            this.recent = null;
+        } else {
+            this.frames = null;
+            int max = b.maxCachedFrames;
+            this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, CompiledMessage> eldest) {
+                    return size() > max;
+                }
+            };
+        }
+        if (b.eager && frames != null) {
+            for (int i = 0; i < frameCount; i++) template(i);
+        }
+    }
+
+    public static Builder builder(VortexParser parser) {
+        return new Builder(parser);
+    }
+
+    /**
+     * Moving gradient: the phase of {@code <gradient>} shifts across {@code frameCount} frames.
+     */
+    public static AnimatedMessage gradient(VortexParser parser, String text, int frameCount, String... colors) {
+        String stops = String.join(":", colors);
+        return builder(parser)
+                .frames(frameCount, i -> String.format(Locale.ROOT, "<gradient:%s:%.4f>%s</gradient>",
+                        stops, 2.0 * i / frameCount - 1, text))
+                .build();
+    }
+
+    /**
+     * Marquee showing {@code width} characters of plain {@code text}, shifted by one per frame;
+     * {@code style} is markup prepended to every frame, such as {@code "<yellow>"}.
+     */
+    public static AnimatedMessage scroll(VortexParser parser, String style, String text, int width) {
+        String loop = text + "   ";
+        int length = loop.length();
+        return builder(parser)
+                .frames(length, i -> {
+                    StringBuilder frame = new StringBuilder(style.length() + width * 2).append(style);
+                    for (int k = 0; k < width; k++) {
+                        char ch = loop.charAt((i + k) % length);
+                        if (ch == '<' || ch == '\\') frame.append('\\');
+                        frame.append(ch);
+                    }
+                    return frame.toString();
+                })
+                .build();
+    }
+
+    /**
+     * Shows {@code text} for {@code onFrames} frames, then nothing for {@code offFrames}. Only two templates are compiled.
+     */
+    public static AnimatedMessage blink(VortexParser parser, String text, int onFrames, int offFrames) {
+        CompiledMessage on = parser.compile(text);
+        CompiledMessage off = parser.compile("");
+        return builder(parser)
+                .compiledFrames(onFrames + offFrames, i -> i < onFrames ? on : off)
+                .build();
+    }
+
+    public int frameCount() {
+        return frameCount;
+    }
+
+    public int ticksPerFrame() {
+        return ticksPerFrame;
+    }
+
+    public Component frame(long tick) {
+        return template(index(tick)).render();
+    }
+
+    public Component frame(long tick, Object context) {
+        return template(index(tick)).render(context);
+    }
+
+    public CompiledMessage template(int index) {
+        if (frames != null) {
+            CompiledMessage frame = frames.get(index);
+            if (frame == null) {
+                frame = generator.apply(index);
+                frames.set(index, frame);
+            }
+            return frame;
+        }
+
+        synchronized (recent) {
+            CompiledMessage frame = recent.get(index);
+            if (frame != null) return frame;
+        }
+        CompiledMessage frame = generator.apply(index);
+        synchronized (recent) {
+            recent.put(index, frame);
+        }
+        return frame;
+    }
+
+    private int index(long tick) {
+        return (int) Math.floorMod(Math.floorDiv(tick, ticksPerFrame), (long) frameCount);
+    }
+
+    public static class Builder {
+        private final VortexParser parser;
+        private int frameCount;
+        private int ticksPerFrame = 1;
+        private int maxCachedFrames = 256;
+        private boolean eager = false;
+        private IntFunction<CompiledMessage> generator;
+
+        Builder(VortexParser parser) {
+            if (parser == null) throw new IllegalArgumentException("parser required");
+            this.parser = parser;
+        }
+
+        /** Frame {@code i} is the markup returned by {@code source}, compiled on first use. */
+        public Builder frames(int count, IntFunction<String> source) {
+            return compiledFrames(count, i -> parser.compile(source.apply(i)));
+        }
+
+        public Builder compiledFrames(int count, IntFunction<CompiledMessage> generator) {
+            this.frameCount = count;
+            this.generator = generator;
+            return this;
+        }
+
+        public Builder ticksPerFrame(int ticks) { this.ticksPerFrame = Math.max(1, ticks); return this; }
+        public Builder maxCachedFrames(int max) { this.maxCachedFrames = Math.max(1, max); return this; }
+        public Builder eager(boolean b) { this.eager = b; return this; }
+
+        public AnimatedMessage build() {
+            if (generator == null || frameCount <= 0) throw new IllegalStateException("frames() required");
+            return new AnimatedMessage(this);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package fr.vortex.parser.builders;
+
+import fr.vortex.parser.VortexParser;
+import fr.vortex.parser.intern.ComponentInterner;
+
+public record CacheBuilder(VortexParserBuilder parent) {
+
+    /**
+     * Maximum number of parsed components kept by the render cache; {@code 0} disables it.
+     */
+    public CacheBuilder maxSize(int maxSize) {
+        parent.setCacheSize(Math.max(0, maxSize));
+        return this;
+    }
+
+    /**
+     * Deduplicates styles and subtrees of cached and compiled components through the shared weak pool.
+     */
+    public CacheBuilder intern(boolean intern) {
+        parent.setInterner(intern ? ComponentInterner.shared() : null);
+        return this;
+    }
+
+    public CacheBuilder interner(ComponentInterner interner) {
+        parent.setInterner(interner);
+        return this;
+    }
+
+    public LegacyBuilder Legacy() {
+        return parent.legacy();
+    }
+
+    public MiniMessageBuilder MiniMessage() {
+        return parent.miniMessage();
+    }
+
+    public MetricsBuilder Metrics() {
+        return parent.metrics();
+    }
+
+    public VortexParser build() {
+        return parent.build();
+    }
+}
@@ -25,6 +25,14 @@ public record LegacyBuilder(VortexParserBuilder parent) {
         return parent.miniMessage();
     }
 
+    public CacheBuilder Cache() {
+        return parent.cache();
+    }
+
+    public MetricsBuilder Metrics() {
+        return parent.metrics();
+    }
+
     public VortexParser build() {
         return parent.build();
     }
@@ -0,0 +1,38 @@
+package fr.vortex.parser.builders;
+
+import fr.vortex.parser.VortexParser;
+import fr.vortex.parser.metrics.ParserMetrics;
+
+import java.time.Duration;
+
+public record MetricsBuilder(VortexParserBuilder parent) {
+
+    public MetricsBuilder listener(ParserMetrics metrics) {
+        parent.setMetrics(metrics);
+        return this;
+    }
+
+    /**
+     * Supplier calls slower than {@code threshold} are reported through {@link ParserMetrics#onSlowPlaceholder}.
+     */
+    public MetricsBuilder slowPlaceholderThreshold(Duration threshold) {
+        if (threshold != null && !threshold.isNegative()) parent.setSlowPlaceholderThreshold(threshold);
+        return this;
+    }
+
+    public LegacyBuilder Legacy() {
+        return parent.legacy();
+    }
+
+    public MiniMessageBuilder MiniMessage() {
+        return parent.miniMessage();
+    }
+
+    public CacheBuilder Cache() {
+        return parent.cache();
+    }
+
+    public VortexParser build() {
+        return parent.build();
+    }
+}
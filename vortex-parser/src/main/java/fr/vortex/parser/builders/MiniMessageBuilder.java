@@ -18,6 +18,14 @@ public record MiniMessageBuilder(VortexParserBuilder parent) {
         return parent.legacy();
     }
 
+    public CacheBuilder Cache() {
+        return parent.cache();
+    }
+
+    public MetricsBuilder Metrics() {
+        return parent.metrics();
+    }
+
     public VortexParser build() {
         return parent.build();
     }
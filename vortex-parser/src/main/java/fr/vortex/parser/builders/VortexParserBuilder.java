@@ -2,11 +2,15 @@ package fr.vortex.parser.builders;
 
 import fr.vortex.parser.VortexParser;
 import fr.vortex.parser.VortexParserPlaceholder;
+import fr.vortex.parser.intern.ComponentInterner;
+import fr.vortex.parser.metrics.ParserMetrics;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 @Getter
 @Setter
@@ -19,6 +23,14 @@ public class VortexParserBuilder {
     private boolean miniMessageStrict = false;
     private boolean stripUnknownTags = true;
 
+    private int cacheSize = 0;
+    private ComponentInterner interner;
+
+    private Executor executor;
+
+    private ParserMetrics metrics;
+    private Duration slowPlaceholderThreshold = Duration.ofMillis(1);
+
     private final List<VortexParserPlaceholder> placeholders = new ArrayList<>();
 
     public LegacyBuilder legacy() {
@@ -29,19 +41,28 @@ public class VortexParserBuilder {
         return new MiniMessageBuilder(this);
     }
 
+    public CacheBuilder cache() {
+        return new CacheBuilder(this);
+    }
+
+    public MetricsBuilder metrics() {
+        return new MetricsBuilder(this);
+    }
+
+    /**
+     * Executor used by {@link VortexParser#parseAll(java.util.Collection)}; defaults to the common fork-join pool.
+     */
+    public VortexParserBuilder executor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
     public VortexParserBuilder addPlaceholder(VortexParserPlaceholder placeholder) {
         if (placeholder != null) placeholders.add(placeholder);
         return this;
     }
 
     public VortexParser build() {
-        VortexParser parser = new VortexParser(
-                legacyChar, legacyDefaultColor, stripUnknownLegacy,
-                miniMessageStrict, stripUnknownTags, new ArrayList<>(placeholders)
-        );
-
-        placeholders.forEach(parser::addPlaceholder);
-
-        return parser;
+        return new VortexParser(this);
     }
 }
@@ -0,0 +1,15 @@
+package fr.vortex.parser.cache;
+
+public record CacheStats(long hits, long misses, long evictions, int size) {
+
+    public static final CacheStats EMPTY = new CacheStats(0, 0, 0, 0);
+
+    public long requests() {
+        return hits + misses;
+    }
+
+    public double hitRate() {
+        long requests = requests();
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+}
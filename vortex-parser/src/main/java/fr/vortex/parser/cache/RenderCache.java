@@ -0,0 +1,119 @@
+package fr.vortex.parser.cache;
+
+import net.kyori.adventure.text.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded cache of parsed components keyed by their post-substitution source text.
+ * <p>
+ * Entries are spread over independently locked LRU segments so concurrent renders rarely contend;
+ * each segment evicts its least recently used entry once it holds its share of {@code maxSize}.
+ */
+public final class RenderCache {
+
+    private final Segment[] segments;
+    private final int mask;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public RenderCache(int maxSize) {
+        if (maxSize <= 0) throw new IllegalArgumentException("maxSize must be positive");
+
+        int count = Integer.highestOneBit(Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), maxSize / 16)));
+        this.segments = new Segment[count];
+        this.mask = count - 1;
+        int perSegment = Math.max(1, maxSize / count);
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+    }
+
+    public Component get(String text) {
+        Component component = segmentFor(text).get(text);
+        if (component == null) misses.increment();
+        else hits.increment();
+        return component;
+    }
+
+    public void put(String text, Component component) {
+        if (segmentFor(text).put(text, component)) evictions.increment();
+    }
+
+    public void clear() {
+        for (Segment segment : segments) segment.clear();
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) size += segment.size();
+        return size;
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), size());
+    }
+
+    private Segment segmentFor(String text) {
+        int h = text.hashCode();
+        return segments[(h ^ (h >>> 16)) & mask];
+    }
+
+    private static final class Segment {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<String, Component> entries;
+        private final int maxSize;
+
+        Segment(int maxSize) {
+            this.maxSize = maxSize;
+            this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        }
+
+        Component get(String text) {
+            lock.lock();
+            try {
+                return entries.get(text);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean put(String text, Component component) {
+            lock.lock();
+            try {
+                entries.put(text, component);
+                if (entries.size() <= maxSize) return false;
+                var eldest = entries.entrySet().iterator();
+                eldest.next();
+                eldest.remove();
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void clear() {
+            lock.lock();
+            try {
+                entries.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return entries.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
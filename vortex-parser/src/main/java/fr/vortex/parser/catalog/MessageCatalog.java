@@ -0,0 +1,195 @@
+package fr.vortex.parser.catalog;
+
+import fr.vortex.parser.CompiledMessage;
+import fr.vortex.parser.VortexParser;
+import fr.vortex.structrurate.loader.ConfigIO;
+import net.kyori.adventure.text.Component;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-locale message catalog whose entries are compiled into {@link CompiledMessage} templates once,
+ * either lazily on first lookup or eagerly when built.
+ * <p>
+ * Nested YAML sections are flattened into dotted keys ({@code shop.title}); lists are joined with new lines.
+ * A lookup walks the requested locale, its language-only form, then the default locale.
+ */
+public final class MessageCatalog {
+
+    /** Unknown keys whose template is kept; lookups of further unknown keys compile it every time. */
+    private static final int MAX_MISSING = 256;
+
+    private final VortexParser parser;
+    private final Locale defaultLocale;
+    private final Map<Locale, Map<String, Entry>> tables;
+    private final Map<Locale, Map<String, Entry>[]> chains = new ConcurrentHashMap<>();
+    private final Map<String, CompiledMessage> missing = new ConcurrentHashMap<>();
+
+    private MessageCatalog(Builder builder) {
+        this.parser = builder.parser;
+        this.defaultLocale = builder.defaultLocale;
+        this.tables = new HashMap<>(builder.tables);
+        if (builder.eager) compileAll();
+    }
+
+    public static Builder builder(VortexParser parser) {
+        return new Builder(parser);
+    }
+
+    /**
+     * Returns the template for {@code key}, falling back to the default locale. An unknown key yields
+     * a template rendering the key itself, as plain text.
+     */
+    public CompiledMessage get(String key, Locale locale) {
+        for (Map<String, Entry> table : chain(locale)) {
+            Entry entry = table.get(key);
+            if (entry != null) return entry.compiled(parser);
+        }
+        CompiledMessage fallback = missing.get(key);
+        if (fallback != null) return fallback;
+        // Keys can come from user input: never read as markup, and past the cap not remembered
+        if (missing.size() >= MAX_MISSING) return parser.literal(key);
+        return missing.computeIfAbsent(key, parser::literal);
+    }
+
+    public CompiledMessage get(String key) {
+        return get(key, defaultLocale);
+    }
+
+    public Component render(String key, Locale locale, Object context) {
+        return get(key, locale).render(context);
+    }
+
+    public Component render(String key, Locale locale) {
+        return get(key, locale).render();
+    }
+
+    public boolean has(String key, Locale locale) {
+        for (Map<String, Entry> table : chain(locale)) {
+            if (table.containsKey(key)) return true;
+        }
+        return false;
+    }
+
+    public Collection<Locale> locales() {
+        return tables.keySet();
+    }
+
+    public Locale defaultLocale() {
+        return defaultLocale;
+    }
+
+    private void compileAll() {
+        for (Map<String, Entry> table : tables.values()) {
+            for (Entry entry : table.values()) entry.compiled(parser);
+        }
+    }
+
+    /**
+     * Lookup chain of {@code locale}. A locale without a table uses the chain of its language, or of the
+     * default locale, so arbitrary client locales never add entries.
+     */
+    private Map<String, Entry>[] chain(Locale locale) {
+        Locale key = locale == null ? defaultLocale : locale;
+        if (!tables.containsKey(key)) key = Locale.of(key.getLanguage());
+        if (!tables.containsKey(key)) key = defaultLocale;
+        return chains.computeIfAbsent(key, this::chainFor);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Entry>[] chainFor(Locale locale) {
+        List<Map<String, Entry>> chain = new ArrayList<>(3);
+        addTable(chain, locale);
+        if (!locale.getCountry().isEmpty() || !locale.getVariant().isEmpty()) addTable(chain, Locale.of(locale.getLanguage()));
+        addTable(chain, defaultLocale);
+        return chain.toArray(new Map[0]);
+    }
+
+    private void addTable(List<Map<String, Entry>> chain, Locale locale) {
+        Map<String, Entry> table = tables.get(locale);
+        if (table != null && !chain.contains(table)) chain.add(table);
+    }
+
+    private static final class Entry {
+
+        private final String source;
+        private volatile CompiledMessage compiled;
+
+        Entry(String source) {
+            this.source = source;
+        }
+
+        CompiledMessage compiled(VortexParser parser) {
+            CompiledMessage c = compiled;
+            if (c == null) {
+                c = parser.compile(source);
+                compiled = c;
+            }
+            return c;
+        }
+    }
+
+    public static class Builder {
+        private final VortexParser parser;
+        private Locale defaultLocale = Locale.ENGLISH;
+        private boolean eager = false;
+        private final Map<Locale, Map<String, Entry>> tables = new LinkedHashMap<>();
+
+        Builder(VortexParser parser) {
+            if (parser == null) throw new IllegalArgumentException("parser required");
+            this.parser = parser;
+        }
+
+        public Builder defaultLocale(Locale locale) {
+            if (locale != null) this.defaultLocale = locale;
+            return this;
+        }
+
+        public Builder eager(boolean eager) {
+            this.eager = eager;
+            return this;
+        }
+
+        public Builder load(Locale locale, Path file) {
+            return load(locale, new ConfigIO().readWithHeader(file).map());
+        }
+
+        public Builder load(Locale locale, Map<String, ?> tree) {
+            flatten("", tree, tables.computeIfAbsent(locale, l -> new HashMap<>()));
+            return this;
+        }
+
+        public MessageCatalog build() {
+            return new MessageCatalog(this);
+        }
+
+        private static void flatten(String prefix, Map<String, ?> tree, Map<String, Entry> out) {
+            for (Map.Entry<String, ?> e : tree.entrySet()) {
+                String key = prefix + e.getKey();
+                Object value = e.getValue();
+                if (value instanceof Map<?, ?> section) {
+                    @SuppressWarnings("unchecked")
+                    Map<String, ?> child = (Map<String, ?>) section;
+                    flatten(key + ".", child, out);
+                } else if (value instanceof Collection<?> lines) {
+                    StringBuilder joined = new StringBuilder();
+                    for (Object line : lines) {
+                        if (!joined.isEmpty()) joined.append('\n');
+                        joined.append(line);
+                    }
+                    out.put(key, new Entry(joined.toString()));
+                } else if (value != null) {
+                    out.put(key, new Entry(value.toString()));
+                }
+            }
+        }
+    }
+}
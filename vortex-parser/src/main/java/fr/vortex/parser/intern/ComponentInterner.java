@@ -0,0 +1,119 @@
+package fr.vortex.parser.intern;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.format.Style;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.WeakHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Weak pool deduplicating equal {@link Style}s, short text leaves and whole subtrees, so large sets of
+ * cached or compiled messages share their common parts.
+ * <p>
+ * Components are interned bottom-up: styles and children first, then the node itself. Entries are only
+ * weakly held and disappear once no message references them anymore.
+ */
+public final class ComponentInterner {
+
+    private static final ComponentInterner SHARED = new ComponentInterner(64);
+
+    private final int maxLeafLength;
+    private final Pool<Style> styles = new Pool<>();
+    private final Pool<Component> components = new Pool<>();
+
+    /**
+     * @param maxLeafLength text leaves longer than this are kept as is, as they are unlikely to repeat
+     */
+    public ComponentInterner(int maxLeafLength) {
+        this.maxLeafLength = maxLeafLength;
+    }
+
+    /**
+     * Pool shared by every parser enabling interning.
+     */
+    public static ComponentInterner shared() {
+        return SHARED;
+    }
+
+    public Style intern(Style style) {
+        return style.isEmpty() ? Style.empty() : styles.intern(style);
+    }
+
+    public Component intern(Component component) {
+        if (component == null) return null;
+
+        Component result = component;
+        Style style = intern(component.style());
+        if (style != component.style()) result = result.style(style);
+
+        List<Component> children = component.children();
+        List<Component> interned = null;
+        for (int i = 0; i < children.size(); i++) {
+            Component child = children.get(i);
+            Component shared = intern(child);
+            if (interned == null && shared != child) interned = new ArrayList<>(children.subList(0, i));
+            if (interned != null) interned.add(shared);
+        }
+        if (interned != null) result = result.children(interned);
+
+        if (children.isEmpty() && result instanceof TextComponent text && text.content().length() > maxLeafLength) return result;
+        return components.intern(result);
+    }
+
+    public int styleCount() {
+        return styles.size();
+    }
+
+    public int componentCount() {
+        return components.size();
+    }
+
+    private static final class Pool<T> {
+
+        private static final int SEGMENTS = 16;
+
+        private final ReentrantLock[] locks = new ReentrantLock[SEGMENTS];
+        @SuppressWarnings("unchecked")
+        private final WeakHashMap<T, WeakReference<T>>[] maps = new WeakHashMap[SEGMENTS];
+
+        Pool() {
+            for (int i = 0; i < SEGMENTS; i++) {
+                locks[i] = new ReentrantLock();
+                maps[i] = new WeakHashMap<>();
+            }
+        }
+
+        T intern(T value) {
+            int h = value.hashCode();
+            int segment = (h ^ (h >>> 16)) & (SEGMENTS - 1);
+            ReentrantLock lock = locks[segment];
+            lock.lock();
+            try {
+                WeakReference<T> ref = maps[segment].get(value);
+                T existing = ref == null ? null : ref.get();
+                if (existing != null) return existing;
+                maps[segment].put(value, new WeakReference<>(value));
+                return value;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            int size = 0;
+            for (int i = 0; i < SEGMENTS; i++) {
+                locks[i].lock();
+                try {
+                    size += maps[i].size();
+                } finally {
+                    locks[i].unlock();
+                }
+            }
+            return size;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package fr.vortex.parser.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with power-of-two nanosecond buckets.
+ */
+public final class Histogram {
+
+    private static final int BUCKETS = 64;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public Histogram() {
+        for (int i = 0; i < BUCKETS; i++) buckets[i] = new LongAdder();
+    }
+
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets[BUCKETS - Long.numberOfLeadingZeros(value)].increment();
+        count.increment();
+        total.add(value);
+        max.accumulate(value);
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public long totalNanos() {
+        return total.sum();
+    }
+
+    public long maxNanos() {
+        return max.get();
+    }
+
+    public double meanNanos() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) total.sum() / n;
+    }
+
+    /**
+     * Upper bound of the bucket holding the given percentile ({@code 0..100}).
+     */
+    public long percentileNanos(double percentile) {
+        long n = count.sum();
+        if (n == 0) return 0;
+
+        long rank = (long) Math.ceil(n * Math.min(100, Math.max(0, percentile)) / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets[i].sum();
+            if (seen >= rank && seen > 0) return i == 0 ? 0 : Math.min(max.get(), (1L << i) - 1);
+        }
+        return max.get();
+    }
+
+    public void reset() {
+        for (LongAdder bucket : buckets) bucket.reset();
+        count.reset();
+        total.reset();
+        max.reset();
+    }
+}
@@ -0,0 +1,95 @@
+package fr.vortex.parser.metrics;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory {@link ParserMetrics} aggregating parse counts, per-stage and per-placeholder latency
+ * histograms, slow-placeholder counts and render cache hits.
+ */
+public final class MetricsRegistry implements ParserMetrics {
+
+    private final Histogram parses = new Histogram();
+    private final Map<ParserStage, Histogram> stages = new EnumMap<>(ParserStage.class);
+    private final Map<String, Histogram> placeholders = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> slowPlaceholders = new ConcurrentHashMap<>();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private volatile long since = System.nanoTime();
+
+    public MetricsRegistry() {
+        for (ParserStage stage : ParserStage.values()) stages.put(stage, new Histogram());
+    }
+
+    @Override
+    public void onParse(long nanos) {
+        parses.record(nanos);
+    }
+
+    @Override
+    public void onStage(ParserStage stage, long nanos) {
+        stages.get(stage).record(nanos);
+    }
+
+    @Override
+    public void onPlaceholder(String key, long nanos) {
+        placeholders.computeIfAbsent(key, k -> new Histogram()).record(nanos);
+    }
+
+    @Override
+    public void onSlowPlaceholder(String key, long nanos) {
+        slowPlaceholders.computeIfAbsent(key, k -> new LongAdder()).increment();
+    }
+
+    @Override
+    public void onCacheLookup(boolean hit) {
+        if (hit) cacheHits.increment();
+        else cacheMisses.increment();
+    }
+
+    public Histogram parses() {
+        return parses;
+    }
+
+    /** Average parse calls per second since creation or the last {@link #reset()}. */
+    public double callsPerSecond() {
+        double seconds = (System.nanoTime() - since) / 1_000_000_000.0;
+        return seconds <= 0 ? 0 : parses.count() / seconds;
+    }
+
+    public Histogram stage(ParserStage stage) {
+        return stages.get(stage);
+    }
+
+    public Map<String, Histogram> placeholders() {
+        return Collections.unmodifiableMap(placeholders);
+    }
+
+    public long slowCalls(String key) {
+        LongAdder count = slowPlaceholders.get(key);
+        return count == null ? 0 : count.sum();
+    }
+
+    public Map<String, LongAdder> slowPlaceholders() {
+        return Collections.unmodifiableMap(slowPlaceholders);
+    }
+
+    public double cacheHitRate() {
+        long hits = cacheHits.sum();
+        long total = hits + cacheMisses.sum();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    public void reset() {
+        parses.reset();
+        stages.values().forEach(Histogram::reset);
+        placeholders.clear();
+        slowPlaceholders.clear();
+        cacheHits.reset();
+        cacheMisses.reset();
+        since = System.nanoTime();
+    }
+}
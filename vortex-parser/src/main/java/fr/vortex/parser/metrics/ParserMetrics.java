@@ -0,0 +1,26 @@
+package fr.vortex.parser.metrics;
+
+/**
+ * Receives timings from a {@link fr.vortex.parser.VortexParser}. Only called when a listener is configured,
+ * from whichever thread is parsing, so implementations must be thread-safe and cheap.
+ */
+public interface ParserMetrics {
+
+    /** A full {@code parse} call, {@code nanos} long. */
+    default void onParse(long nanos) {
+    }
+
+    default void onStage(ParserStage stage, long nanos) {
+    }
+
+    /** One supplier call of the placeholder {@code key}. */
+    default void onPlaceholder(String key, long nanos) {
+    }
+
+    /** A supplier call of {@code key} that took longer than the configured slow threshold. */
+    default void onSlowPlaceholder(String key, long nanos) {
+    }
+
+    default void onCacheLookup(boolean hit) {
+    }
+}
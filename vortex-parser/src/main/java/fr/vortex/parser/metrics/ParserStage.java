@@ -0,0 +1,7 @@
+package fr.vortex.parser.metrics;
+
+public enum ParserStage {
+    PLACEHOLDERS,
+    LEGACY,
+    MINIMESSAGE
+}
@@ -0,0 +1,119 @@
+package fr.vortex.parser;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.event.ClickEvent;
+import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class CompiledMessageTest {
+
+    private static VortexParser parser(VortexParserPlaceholder... placeholders) {
+        VortexParser parser = VortexParser.builder().build();
+        for (VortexParserPlaceholder placeholder : placeholders) parser.addPlaceholder(placeholder);
+        return parser;
+    }
+
+    private static VortexParserPlaceholder percent(String key, String value) {
+        return VortexParserPlaceholder.create(key, () -> value).setEntryReplacer("%").setFinalReplacer("%");
+    }
+
+    private static void assertSameAsParse(VortexParser parser, String text) {
+        Component parsed = parser.parse(text);
+        Component rendered = parser.compile(text).render();
+        assertEquals(parser.fromLegacy(parsed), parser.fromLegacy(rendered), text);
+        assertEquals(clicks(parsed), clicks(rendered), text);
+    }
+
+    private static void assertJsonSameAsRender(VortexParser parser, String text) {
+        CompiledMessage message = parser.compile(text);
+        String expected = GsonComponentSerializer.gson().serialize(message.render());
+        assertEquals(expected, message.renderJson(), text);
+        // The second call goes through the cached JSON template
+        assertEquals(expected, message.renderJson(), text);
+    }
+
+    private static String plain(Component component) {
+        StringBuilder out = new StringBuilder();
+        if (component instanceof TextComponent text) out.append(text.content());
+        for (Component child : component.children()) out.append(plain(child));
+        return out.toString();
+    }
+
+    private static List<String> clicks(Component component) {
+        List<String> out = new ArrayList<>();
+        collectClicks(component, out);
+        return out;
+    }
+
+    private static void collectClicks(Component component, List<String> out) {
+        ClickEvent click = component.clickEvent();
+        if (click != null && click.payload() instanceof ClickEvent.Payload.Text text) out.add(click.action() + " " + text.value());
+        for (Component child : component.children()) collectClicks(child, out);
+    }
+
+    @Test
+    void plainValuesRenderLikeParse() {
+        VortexParser parser = parser(percent("player", "Steve"));
+        assertSameAsParse(parser, "&aHello %player%&f!");
+        assertSameAsParse(parser, "<red>%player% and %player%</red> done");
+    }
+
+    @Test
+    void markupValuesRenderLikeParse() {
+        VortexParser parser = parser(percent("rank", "&cAdmin"), percent("tag", "<bold>VIP</bold>"));
+        assertSameAsParse(parser, "&7[%rank%&7] %tag% joined");
+    }
+
+    @Test
+    void textValuesStayLiteral() {
+        VortexParser parser = parser(percent("name", "&cBob").setType(VortexParserPlaceholder.Type.TEXT));
+        assertEquals("&cBob", plain(parser.compile("%name%").render()));
+    }
+
+    @Test
+    void slotsInTagArgumentsAreFilled() {
+        VortexParser parser = parser(percent("player", "Steve"));
+        String text = "<click:run_command:'/tp %player%'>Go to %player%</click>";
+        assertSameAsParse(parser, text);
+
+        List<String> clicks = clicks(parser.compile(text).render());
+        assertEquals(List.of("run_command /tp Steve"), clicks);
+    }
+
+    @Test
+    void slotsInHoverTextAreFilled() {
+        VortexParser parser = parser(percent("player", "Steve"));
+        Component rendered = parser.compile("<hover:show_text:'Hi %player%'>x</hover>").render();
+        assertNotNull(rendered.hoverEvent());
+        assertEquals("Hi Steve", plain((Component) rendered.hoverEvent().value()));
+    }
+
+    @Test
+    void slotTagIsNotReachableFromParse() {
+        VortexParser parser = parser(percent("player", "Steve"));
+        parser.compile("%player%");
+        assertEquals("a<vortex_slot:0>b", plain(parser.parse("a<vortex_slot:0>b")));
+    }
+
+    @Test
+    void renderJsonMatchesGsonOfRender() {
+        VortexParser parser = parser(percent("player", "Ste\"ve\\"), percent("rank", "&cAdmin"),
+                percent("tag", "<bold>VIP</bold>"), percent("name", "<b>").setType(VortexParserPlaceholder.Type.TEXT),
+                percent("motd", "<green>hi").setType(VortexParserPlaceholder.Type.MINIMESSAGE));
+        assertJsonSameAsRender(parser, "no slots at all");
+        assertJsonSameAsRender(parser, "&aHello %player%&f!");
+        assertJsonSameAsRender(parser, "%player%");
+        assertJsonSameAsRender(parser, "<red>%player% and %player%</red> done");
+        assertJsonSameAsRender(parser, "&7[%rank%&7] %tag% joined");
+        assertJsonSameAsRender(parser, "<gold>%name% / %motd%");
+        assertJsonSameAsRender(parser, "<click:run_command:'/tp %player%'>Go to %player%</click>");
+        assertJsonSameAsRender(parser, "<hover:show_text:'Hi %player%'>x</hover>");
+    }
+}
@@ -0,0 +1,64 @@
+package fr.vortex.parser;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.Style;
+import net.kyori.adventure.text.format.TextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LegacyLexerTest {
+
+    private final LegacyLexer lexer = new LegacyLexer('\u00A7', true);
+
+    @Test
+    void hashHexColor() {
+        assertEquals(Component.text("Red", TextColor.color(0xFF0000)), lexer.toComponent("&#FF0000Red"));
+        assertEquals(Component.text("Red", TextColor.color(0xABCDEF)), lexer.toComponent("\u00A7#abcdefRed"));
+    }
+
+    @Test
+    void repeatedHexColor() {
+        assertEquals(Component.text("Teal", TextColor.color(0x00FFAA)), lexer.toComponent("&x&0&0&f&f&a&aTeal"));
+        assertEquals(Component.text("Mix", TextColor.color(0x123456)), lexer.toComponent("\u00A7x&1\u00A72&3\u00A74&5\u00A76Mix"));
+    }
+
+    @Test
+    void truncatedHexIsLeftAlone() {
+        LegacyLexer keep = new LegacyLexer('\u00A7', false);
+
+        assertEquals(Component.text("&#FF00"), keep.toComponent("&#FF00"));
+        assertEquals(Component.text("&#GG0000"), keep.toComponent("&#GG0000"));
+        Component partial = Component.text()
+                .append(Component.text("&x"))
+                .append(Component.text("!", NamedTextColor.WHITE))
+                .build();
+        assertEquals(partial, keep.toComponent("&x&F&F!"));
+    }
+
+    @Test
+    void colorResetsDecorations() {
+        Component expected = Component.text()
+                .append(Component.text("a", Style.style(NamedTextColor.RED, TextDecoration.BOLD)))
+                .append(Component.text("b", NamedTextColor.GREEN))
+                .append(Component.text("c"))
+                .build();
+
+        assertEquals(expected, lexer.toComponent("&c&la&ab&rc"));
+    }
+
+    @Test
+    void miniMessageRewriteSkipsTagContent() {
+        assertEquals("<#FF0000>x <hover:show_text:'&cy'>z",
+                lexer.toMiniMessage("&#FF0000x <hover:show_text:'&cy'>z"));
+        assertEquals("<red>a</red><#123456>b", lexer.toMiniMessage("&ca&x&1&2&3&4&5&6b"));
+    }
+
+    @Test
+    void unknownCodesAreStrippedOrKept() {
+        assertEquals(Component.text("ab"), lexer.toComponent("a&zb"));
+        assertEquals(Component.text("a&zb"), new LegacyLexer('\u00A7', false).toComponent("a&zb"));
+    }
+}
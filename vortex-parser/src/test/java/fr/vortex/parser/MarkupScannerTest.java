@@ -0,0 +1,32 @@
+package fr.vortex.parser;
+
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MarkupScannerTest {
+
+    private static final String RESET = "\u001B[0m";
+    private static final String GOLD = "\u001B[33m";
+    private static final String RED = "\u001B[91m";
+
+    private final MarkupScanner scanner = new MarkupScanner(new LegacyLexer('\u00A7', true), NamedTextColor.GOLD);
+
+    @Test
+    void ansiStartsWithTheDefaultColor() {
+        assertEquals(RESET + GOLD + "a" + RESET + RED + "b" + RESET + GOLD + "c" + RESET, scanner.toAnsi("a&cb&rc"));
+        assertEquals(RESET + GOLD + "a" + RESET + RED + "b" + RESET + GOLD + "c" + RESET, scanner.toAnsi("a<red>b</red>c"));
+    }
+
+    @Test
+    void withoutDefaultColorPlainTextHasNoEscapes() {
+        assertEquals("abc", new MarkupScanner(new LegacyLexer('\u00A7', true), null).toAnsi("abc"));
+    }
+
+    @Test
+    void serverSideTagsHaveNoText() {
+        assertEquals("Press  to jump", scanner.strip("Press <key:key.jump> to jump"));
+        assertEquals(14, scanner.plainLength("Press <key:key.jump> to jump"));
+    }
+}
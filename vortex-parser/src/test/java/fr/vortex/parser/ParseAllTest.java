@@ -0,0 +1,63 @@
+package fr.vortex.parser;
+
+import net.kyori.adventure.text.Component;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ParseAllTest {
+
+    private static VortexParser parser() {
+        return VortexParser.builder()
+                .addPlaceholder(VortexParserPlaceholder.create("boom", () -> {
+                    throw new IllegalStateException("boom");
+                }))
+                .build();
+    }
+
+    @Test
+    void keepsInputOrderAcrossChunks() {
+        VortexParser parser = parser();
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < 500; i++) texts.add("<red>line " + i);
+
+        List<Component> parsed;
+        try (ExecutorService executor = Executors.newFixedThreadPool(4)) {
+            parsed = VortexParser.builder().executor(executor).build().parseAll(texts);
+        }
+
+        assertEquals(texts.size(), parsed.size());
+        for (int i = 0; i < texts.size(); i++) assertEquals(parser.parse(texts.get(i)), parsed.get(i));
+    }
+
+    @Test
+    void keepsMapKeyOrder() {
+        Map<String, String> texts = new LinkedHashMap<>();
+        for (int i = 100; i > 0; i--) texts.put("key" + i, "<green>value " + i);
+
+        Map<String, Component> parsed = parser().parseAll(texts);
+
+        assertEquals(List.copyOf(texts.keySet()), List.copyOf(parsed.keySet()));
+        assertEquals(parser().parse("<green>value 7"), parsed.get("key7"));
+    }
+
+    @Test
+    void failingEntryFallsBackToPlainText() {
+        VortexParser parser = parser();
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < 200; i++) texts.add(i == 130 ? "<boom> here" : "<red>line " + i);
+
+        List<Component> parsed = parser.parseAll(texts);
+
+        assertEquals(Component.text("<boom> here"), parsed.get(130));
+        assertEquals(parser.parse("<red>line 129"), parsed.get(129));
+        assertEquals(parser.parse("<red>line 131"), parsed.get(131));
+    }
+}
@@ -0,0 +1,64 @@
+package fr.vortex.parser;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class PlaceholderMatcherTest {
+
+    private static VortexParserPlaceholder percent(String key, String value) {
+        return VortexParserPlaceholder.create(key, () -> value).setEntryReplacer("%").setFinalReplacer("%");
+    }
+
+    @Test
+    void prefersLongestOverlappingKey() {
+        VortexParserPlaceholder player = percent("player", "Steve");
+        VortexParserPlaceholder playerName = percent("player_name", "Alex");
+        PlaceholderMatcher matcher = PlaceholderMatcher.of(List.of(player, playerName));
+
+        assertEquals("Steve / Alex", matcher.replace("%player% / %player_name%", p -> p.resolve(null)));
+    }
+
+    @Test
+    void keyIsMatchedAfterAFailedLongerCandidate() {
+        PlaceholderMatcher matcher = PlaceholderMatcher.of(List.of(percent("a", "1"), percent("a%b", "2")));
+
+        assertEquals("1c", matcher.replace("%a%c", p -> p.resolve(null)));
+        assertEquals("2", matcher.replace("%a%b%", p -> p.resolve(null)));
+    }
+
+    @Test
+    void resolvesEachPlaceholderOnceAndNeverRescansValues() {
+        VortexParserPlaceholder loop = percent("x", "%x%");
+        PlaceholderMatcher matcher = PlaceholderMatcher.of(List.of(loop));
+        List<VortexParserPlaceholder> calls = new ArrayList<>();
+
+        String out = matcher.replace("%x% %x%", p -> {
+            calls.add(p);
+            return p.resolve(null);
+        });
+
+        assertEquals("%x% %x%", out);
+        assertEquals(List.of(loop), calls);
+    }
+
+    @Test
+    void returnsSameInstanceWhenNothingMatches() {
+        PlaceholderMatcher matcher = PlaceholderMatcher.of(List.of(percent("x", "y")));
+        String text = "no placeholder % here";
+
+        assertSame(text, matcher.replace(text, p -> "unused"));
+        assertSame(text, PlaceholderMatcher.EMPTY.replace(text, p -> "unused"));
+    }
+
+    @Test
+    void firstRegisteredWinsForDuplicateStrings() {
+        PlaceholderMatcher matcher = PlaceholderMatcher.of(List.of(percent("x", "first"), percent("x", "second")));
+
+        assertEquals("first", matcher.replace("%x%", p -> p.resolve(null)));
+    }
+}
@@ -0,0 +1,71 @@
+package fr.vortex.parser;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PlaceholderRegistryTest {
+
+    private static VortexParserPlaceholder placeholder(String key, String value) {
+        return VortexParserPlaceholder.create(key, () -> value);
+    }
+
+    @Test
+    void sameStringReplacesInPlace() {
+        VortexParserPlaceholder a = placeholder("a", "1");
+        VortexParserPlaceholder b = placeholder("b", "2");
+        VortexParserPlaceholder newA = placeholder("a", "3");
+        PlaceholderRegistry registry = new PlaceholderRegistry(List.of(a, b));
+
+        assertTrue(registry.add(newA));
+
+        assertEquals(List.of(newA, b), registry.snapshot().placeholders());
+        assertSame(newA, registry.snapshot().byString().get("<a>"));
+    }
+
+    @Test
+    void addingTheSameInstanceOrRemovingAnUnknownStringChangesNothing() {
+        VortexParserPlaceholder a = placeholder("a", "1");
+        PlaceholderRegistry registry = new PlaceholderRegistry(List.of(a));
+        PlaceholderRegistry.Snapshot before = registry.snapshot();
+
+        assertFalse(registry.add(a));
+        assertFalse(registry.remove("<b>"));
+        assertSame(before, registry.snapshot());
+    }
+
+    @Test
+    void snapshotsAreImmutableAndOutliveLaterWrites() {
+        VortexParserPlaceholder a = placeholder("a", "1");
+        PlaceholderRegistry registry = new PlaceholderRegistry(List.of(a));
+        PlaceholderRegistry.Snapshot before = registry.snapshot();
+
+        assertTrue(registry.remove("<a>"));
+
+        assertEquals(List.of(a), before.placeholders());
+        assertTrue(registry.snapshot().placeholders().isEmpty());
+        assertThrows(UnsupportedOperationException.class, () -> before.placeholders().add(a));
+    }
+
+    @Test
+    void concurrentWritersAreNotLost() throws Exception {
+        VortexParser parser = VortexParser.builder().build();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            String key = "p" + i;
+            threads.add(Thread.ofVirtual().start(() -> parser.addPlaceholder(placeholder(key, key.toUpperCase()))));
+            threads.add(Thread.ofVirtual().start(() -> parser.stripFormatting("<p0> <p1> <p2>")));
+        }
+        for (Thread t : threads) t.join();
+
+        assertEquals(64, parser.placeholders().size());
+        assertEquals("P0 P63", parser.stripFormatting("<p0> <p63>"));
+    }
+}
@@ -0,0 +1,102 @@
+package fr.vortex.parser;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class VortexParserPlaceholderTest {
+
+    @Test
+    void invalidationDuringRefreshKeepsValueStale() {
+        List<CompletableFuture<String>> requests = new ArrayList<>();
+        VortexParserPlaceholder placeholder = VortexParserPlaceholder.createAsync("balance", () -> {
+            CompletableFuture<String> future = new CompletableFuture<>();
+            requests.add(future);
+            return future;
+        }).setRefresh(RefreshPolicy.onDemand());
+
+        assertNull(placeholder.resolve(null));
+        requests.get(0).complete("10");
+        assertEquals("10", placeholder.resolve(null));
+        assertEquals(1, requests.size());
+
+        placeholder.invalidate();
+        assertEquals("10", placeholder.resolve(null));
+        assertEquals(2, requests.size());
+
+        // Invalidated again while the refresh is running: its value predates the change
+        placeholder.invalidate();
+        requests.get(1).complete("20");
+        assertEquals("20", placeholder.resolve(null));
+        assertEquals(3, requests.size());
+
+        requests.get(2).complete("30");
+        assertEquals("30", placeholder.resolve(null));
+        assertEquals("30", placeholder.resolve(null));
+        assertEquals(3, requests.size());
+    }
+
+    @Test
+    void firstSyncValueIsLoadedInPlace() {
+        int[] calls = {0};
+        VortexParserPlaceholder placeholder = VortexParserPlaceholder.create("motd", () -> "v" + ++calls[0])
+                .setRefresh(RefreshPolicy.onDemand());
+
+        assertEquals("v1", placeholder.resolve(null));
+        assertEquals("v1", placeholder.resolve(null));
+        assertEquals(1, calls[0]);
+    }
+
+    @Test
+    void nullFutureDoesNotBlockLaterRefreshes() {
+        int[] calls = {0};
+        VortexParserPlaceholder placeholder = VortexParserPlaceholder.createAsync("balance", () -> {
+            calls[0]++;
+            return null;
+        }).setRefresh(RefreshPolicy.onDemand());
+
+        assertNull(placeholder.resolve(null));
+        assertNull(placeholder.resolve(null));
+        assertEquals(2, calls[0]);
+    }
+
+    @Test
+    void refreshThatNeverCompletesIsAbandonedAfterTheTtl() throws Exception {
+        List<CompletableFuture<String>> requests = new ArrayList<>();
+        VortexParserPlaceholder placeholder = VortexParserPlaceholder.createAsync("balance", () -> {
+            CompletableFuture<String> future = new CompletableFuture<>();
+            requests.add(future);
+            return future;
+        }).setRefresh(RefreshPolicy.expireAfter(Duration.ofMillis(20)));
+
+        assertNull(placeholder.resolve(null));
+        assertNull(placeholder.resolve(null));
+        assertEquals(1, requests.size());
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (requests.size() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+            placeholder.resolve(null);
+        }
+        assertEquals(2, requests.size());
+        assertFalse(requests.get(0).isDone());
+
+        requests.get(1).complete("10");
+        assertEquals("10", placeholder.resolve(null));
+    }
+
+    @Test
+    void ttlMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> RefreshPolicy.expireAfter(Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> RefreshPolicy.expireAfter(Duration.ofSeconds(-1)));
+        assertEquals(Duration.ofSeconds(1), RefreshPolicy.expireAfter(Duration.ofSeconds(1)).ttl());
+    }
+}
@@ -0,0 +1,89 @@
+package fr.vortex.parser;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.event.ClickEvent;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.TextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+import net.kyori.adventure.text.minimessage.MiniMessage;
+import net.kyori.adventure.text.serializer.gson.GsonComponentSerializer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class VortexSerializerTest {
+
+    private final VortexParser parser = VortexParser.builder().build();
+
+    @Test
+    void styledTextRoundTripsThroughMiniMessage() {
+        Component component = Component.text("Hello ", NamedTextColor.RED)
+                .append(Component.text("world", TextColor.color(0x12ab34), TextDecoration.BOLD))
+                .append(Component.text("!").decoration(TextDecoration.ITALIC, false));
+
+        String text = parser.from(component);
+        assertEquals(component.compact(), MiniMessage.miniMessage().deserialize(text).compact());
+    }
+
+    @Test
+    void tagOpenersInContentAreEscaped() {
+        Component component = Component.text("a <red> b \\ c");
+        assertEquals("a \\<red> b \\\\ c", parser.from(component));
+        assertEquals(component, MiniMessage.miniMessage().deserialize(parser.from(component)));
+    }
+
+    @Test
+    void treesWithEventsFallBackToMiniMessage() {
+        Component component = Component.text("site").clickEvent(ClickEvent.openUrl("https://example.org"));
+        assertEquals(MiniMessage.miniMessage().serialize(component), parser.from(component));
+    }
+
+    @Test
+    void legacyOutputOnlyEmitsStyleChanges() {
+        Component component = Component.text()
+                .append(Component.text("a", NamedTextColor.RED))
+                .append(Component.text("b", NamedTextColor.RED))
+                .append(Component.text("c", NamedTextColor.RED, TextDecoration.BOLD))
+                .append(Component.text("d", NamedTextColor.RED))
+                .append(Component.text("e", TextColor.color(0x12ab34)))
+                .build();
+        assertEquals("&cab&lc&cd&#12AB34e", parser.fromLegacy(component));
+    }
+
+    @Test
+    void customLegacyCharIsWrittenBackAsAmpersand() {
+        VortexParser custom = VortexParser.builder().legacy().legacyChar("$").build();
+        assertEquals("&cred", custom.from(Component.text("$cred")));
+    }
+
+    @Test
+    void styledTextJsonMatchesGson() {
+        assertJsonLikeGson(Component.text("hi"));
+        assertJsonLikeGson(Component.text(""));
+        assertJsonLikeGson(Component.text("\"q\" \\ \n\t\b\f\r \u0001 \u007f \u00e9 \u2028 <x>"));
+        assertJsonLikeGson(Component.text("a", TextColor.color(0xff5555)));
+        assertJsonLikeGson(Component.text("b", TextColor.color(0x12ab34), TextDecoration.BOLD, TextDecoration.OBFUSCATED)
+                .decoration(TextDecoration.ITALIC, false));
+        assertJsonLikeGson(Component.text()
+                .append(Component.text("x", NamedTextColor.RED).append(Component.text("y")))
+                .append(Component.text("z").decorate(TextDecoration.UNDERLINED, TextDecoration.STRIKETHROUGH))
+                .build());
+        assertJsonLikeGson(parser.parse("&7[&cAdmin&7] <gradient:red:blue>joined</gradient>"));
+        assertJsonLikeGson(Component.text("site").clickEvent(ClickEvent.openUrl("https://example.org")));
+    }
+
+    private void assertJsonLikeGson(Component component) {
+        String expected = GsonComponentSerializer.gson().serialize(component);
+        assertEquals(expected, parser.serializer().toJson(component));
+        StringBuilder out = new StringBuilder("[");
+        parser.serializer().appendJson(component, out);
+        assertEquals("[" + expected, out.toString());
+    }
+
+    @Test
+    void nullComponentsSerializeToEmptyText() {
+        assertEquals("", parser.from(null));
+        assertEquals("", parser.fromLegacy(null));
+        assertEquals("\"\"", parser.serializer().toJson(null));
+    }
+}
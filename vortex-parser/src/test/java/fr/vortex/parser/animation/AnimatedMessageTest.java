@@ -0,0 +1,115 @@
+package fr.vortex.parser.animation;
+
+import fr.vortex.parser.VortexParser;
+import fr.vortex.parser.VortexParserPlaceholder;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AnimatedMessageTest {
+
+    private final VortexParser parser = VortexParser.builder().build();
+
+    private static String plain(Component component) {
+        StringBuilder out = new StringBuilder();
+        if (component instanceof TextComponent text) out.append(text.content());
+        for (Component child : component.children()) out.append(plain(child));
+        return out.toString();
+    }
+
+    @Test
+    void ticksMapToFramesAndWrapAround() {
+        AnimatedMessage message = AnimatedMessage.builder(parser)
+                .frames(3, i -> "frame " + i)
+                .ticksPerFrame(2)
+                .build();
+
+        assertEquals("frame 0", plain(message.frame(1)));
+        assertEquals("frame 1", plain(message.frame(2)));
+        assertEquals("frame 2", plain(message.frame(5)));
+        assertEquals("frame 0", plain(message.frame(6)));
+        assertEquals("frame 2", plain(message.frame(-1)));
+    }
+
+    @Test
+    void shortSequencesCompileEachFrameOnce() {
+        AtomicInteger compiled = new AtomicInteger();
+        AnimatedMessage message = AnimatedMessage.builder(parser)
+                .frames(4, i -> {
+                    compiled.incrementAndGet();
+                    return "frame " + i;
+                })
+                .build();
+
+        for (int tick = 0; tick < 40; tick++) message.frame(tick);
+
+        assertEquals(4, compiled.get());
+        assertSame(message.template(2), message.template(2));
+    }
+
+    @Test
+    void longSequencesOnlyKeepRecentFrames() {
+        AtomicInteger compiled = new AtomicInteger();
+        AnimatedMessage message = AnimatedMessage.builder(parser)
+                .frames(10, i -> {
+                    compiled.incrementAndGet();
+                    return "frame " + i;
+                })
+                .maxCachedFrames(2)
+                .build();
+
+        message.frame(0);
+        message.frame(1);
+        message.frame(0);
+        assertEquals(2, compiled.get());
+
+        message.frame(2);
+        message.frame(1);
+        assertEquals(4, compiled.get());
+    }
+
+    @Test
+    void placeholdersAreFilledOnEveryRender() {
+        String[] name = {"Steve"};
+        VortexParser withName = VortexParser.builder()
+                .addPlaceholder(VortexParserPlaceholder.create("name", () -> name[0]))
+                .build();
+        AnimatedMessage message = AnimatedMessage.blink(withName, "hi <name>", 1, 1);
+
+        assertEquals("hi Steve", plain(message.frame(0)));
+        name[0] = "Alex";
+        assertEquals("hi Alex", plain(message.frame(2)));
+        assertEquals("", plain(message.frame(1)));
+    }
+
+    @Test
+    void scrollShiftsByOneCharacterPerFrame() {
+        AnimatedMessage message = AnimatedMessage.scroll(parser, "<yellow>", "a<b", 3);
+
+        assertEquals(6, message.frameCount());
+        assertEquals("a<b", plain(message.frame(0)));
+        assertEquals("<b ", plain(message.frame(1)));
+        assertEquals("  a", plain(message.frame(4)));
+    }
+
+    @Test
+    void gradientFramesDifferByPhase() {
+        AnimatedMessage message = AnimatedMessage.gradient(parser, "hello", 4, "red", "blue");
+
+        assertEquals("hello", plain(message.frame(0)));
+        assertEquals(parser.serializer().toJson(parser.parse("<gradient:red:blue:-0.5000>hello</gradient>")),
+                parser.serializer().toJson(message.frame(1)));
+    }
+
+    @Test
+    void framesAreRequired() {
+        assertThrows(IllegalStateException.class, () -> AnimatedMessage.builder(parser).build());
+        assertThrows(IllegalArgumentException.class, () -> AnimatedMessage.builder(null));
+    }
+}
@@ -0,0 +1,66 @@
+package fr.vortex.parser.cache;
+
+import fr.vortex.parser.VortexParser;
+import fr.vortex.parser.VortexParserPlaceholder;
+import net.kyori.adventure.text.Component;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class RenderCacheTest {
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntry() {
+        RenderCache cache = new RenderCache(3);
+        cache.put("a", Component.text("a"));
+        cache.put("b", Component.text("b"));
+        cache.put("c", Component.text("c"));
+        assertNotNull(cache.get("a"));
+
+        cache.put("d", Component.text("d"));
+
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("a"));
+        assertNotNull(cache.get("c"));
+        assertNotNull(cache.get("d"));
+        assertEquals(new CacheStats(4, 1, 1, 3), cache.stats());
+    }
+
+    @Test
+    void parserReusesCachedComponents() {
+        VortexParser parser = VortexParser.builder().cache().maxSize(16).build();
+        Component first = parser.parse("<red>hello");
+        assertSame(first, parser.parse("<red>hello"));
+        assertEquals(1, parser.cacheStats().hits());
+    }
+
+    @Test
+    void addingOrRemovingAPlaceholderClearsTheCache() {
+        VortexParser parser = VortexParser.builder().cache().maxSize(16).build();
+        parser.parse("<red>hello");
+        assertEquals(1, parser.cacheStats().size());
+
+        VortexParserPlaceholder name = VortexParserPlaceholder.create("name", () -> "Steve");
+        parser.addPlaceholder(name);
+        assertEquals(0, parser.cacheStats().size());
+        assertEquals("Steve", parser.stripFormatting("<name>"));
+
+        parser.parse("<red>hello");
+        parser.removePlaceholder(name);
+        assertEquals(0, parser.cacheStats().size());
+    }
+
+    @Test
+    void registeringTheSamePlaceholderAgainKeepsTheCache() {
+        VortexParserPlaceholder name = VortexParserPlaceholder.create("name", () -> "Steve");
+        VortexParser parser = VortexParser.builder().addPlaceholder(name).cache().maxSize(16).build();
+        parser.parse("<red>hello");
+
+        parser.addPlaceholder(name);
+        parser.removePlaceholder("<missing>");
+        assertEquals(1, parser.cacheStats().size());
+    }
+}
@@ -0,0 +1,49 @@
+package fr.vortex.parser.catalog;
+
+import fr.vortex.parser.VortexParser;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class MessageCatalogTest {
+
+    private final VortexParser parser = VortexParser.builder().build();
+
+    private final MessageCatalog catalog = MessageCatalog.builder(parser)
+            .defaultLocale(Locale.ENGLISH)
+            .load(Locale.ENGLISH, Map.of("greet", "Hello", "bye", "Bye", "shop", Map.of("title", "<gold>Shop")))
+            .load(Locale.FRENCH, Map.of("greet", "Bonjour"))
+            .build();
+
+    private static String plain(Component component) {
+        StringBuilder out = new StringBuilder();
+        if (component instanceof TextComponent text) out.append(text.content());
+        for (Component child : component.children()) out.append(plain(child));
+        return out.toString();
+    }
+
+    @Test
+    void fallsBackToLanguageThenDefaultLocale() {
+        assertEquals("Bonjour", plain(catalog.render("greet", Locale.CANADA_FRENCH)));
+        assertEquals("Bye", plain(catalog.render("bye", Locale.FRENCH)));
+        assertEquals("Hello", plain(catalog.render("greet", Locale.of("xx", "YY", "whatever"))));
+        assertEquals("Shop", plain(catalog.render("shop.title", null)));
+    }
+
+    @Test
+    void unknownKeyIsRenderedAsPlainText() {
+        String key = "<click:run_command:/op x>&cclick me";
+        Component rendered = catalog.render(key, Locale.ENGLISH);
+
+        assertEquals(key, plain(rendered));
+        assertNull(rendered.clickEvent());
+        assertSame(catalog.get(key), catalog.get(key, Locale.FRENCH));
+    }
+}
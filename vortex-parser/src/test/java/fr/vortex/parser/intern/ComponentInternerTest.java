@@ -0,0 +1,74 @@
+package fr.vortex.parser.intern;
+
+import fr.vortex.parser.VortexParser;
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.format.NamedTextColor;
+import net.kyori.adventure.text.format.Style;
+import net.kyori.adventure.text.format.TextDecoration;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ComponentInternerTest {
+
+    private static Component message(String tail) {
+        return Component.text("[", NamedTextColor.GRAY)
+                .append(Component.text("Admin", NamedTextColor.RED, TextDecoration.BOLD))
+                .append(Component.text("] " + tail, NamedTextColor.GRAY));
+    }
+
+    @Test
+    void equalTreesBecomeTheSameInstance() {
+        ComponentInterner interner = new ComponentInterner(64);
+        Component first = interner.intern(message("hi"));
+        Component second = interner.intern(message("hi"));
+
+        assertSame(first, second);
+        assertEquals(message("hi"), first);
+    }
+
+    @Test
+    void differentTreesShareTheirCommonParts() {
+        ComponentInterner interner = new ComponentInterner(64);
+        Component first = interner.intern(message("hi"));
+        Component second = interner.intern(message("bye"));
+
+        assertNotSame(first, second);
+        assertSame(first.children().get(0), second.children().get(0));
+        assertSame(first.style(), second.style());
+        assertSame(first.children().get(1).style(), second.children().get(1).style());
+    }
+
+    @Test
+    void longLeavesAreKeptAsIs() {
+        ComponentInterner interner = new ComponentInterner(4);
+        Component leaf = Component.text("too long");
+
+        assertSame(leaf, interner.intern(leaf));
+        assertNotSame(leaf, interner.intern(Component.text("too long")));
+        assertEquals(0, interner.componentCount());
+    }
+
+    @Test
+    void emptyStylesAndNullAreNotPooled() {
+        ComponentInterner interner = new ComponentInterner(64);
+
+        assertSame(Style.empty(), interner.intern(Style.style().build()));
+        assertNull(interner.intern((Component) null));
+        assertEquals(0, interner.styleCount());
+    }
+
+    @Test
+    void parsersShareCachedSubtrees() {
+        ComponentInterner interner = new ComponentInterner(64);
+        VortexParser parser = VortexParser.builder().cache().maxSize(16).interner(interner).build();
+
+        Component first = parser.parse("&7[&cAdmin&7] hi");
+        Component second = parser.compile("&7[&cAdmin&7] hi").render();
+
+        assertSame(first, second);
+    }
+}
@@ -0,0 +1,52 @@
+package fr.vortex.parser.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HistogramTest {
+
+    private static Histogram of(long... values) {
+        Histogram histogram = new Histogram();
+        for (long value : values) histogram.record(value);
+        return histogram;
+    }
+
+    @Test
+    void percentilesAreBucketUpperBoundsCappedByTheMax() {
+        Histogram histogram = of(1, 2, 3, 100, 1000);
+
+        assertEquals(1, histogram.percentileNanos(0));
+        assertEquals(3, histogram.percentileNanos(50));
+        assertEquals(127, histogram.percentileNanos(80));
+        assertEquals(1000, histogram.percentileNanos(100));
+    }
+
+    @Test
+    void aggregatesCountTotalMeanAndMax() {
+        Histogram histogram = of(1, 2, 3, 100, 1000);
+
+        assertEquals(5, histogram.count());
+        assertEquals(1106, histogram.totalNanos());
+        assertEquals(221.2, histogram.meanNanos(), 1e-9);
+        assertEquals(1000, histogram.maxNanos());
+    }
+
+    @Test
+    void negativeDurationsCountAsZero() {
+        Histogram histogram = of(-5);
+        assertEquals(0, histogram.totalNanos());
+        assertEquals(0, histogram.percentileNanos(100));
+    }
+
+    @Test
+    void resetForgetsEverything() {
+        Histogram histogram = of(10, 20);
+        histogram.reset();
+
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.maxNanos());
+        assertEquals(0, histogram.meanNanos());
+        assertEquals(0, histogram.percentileNanos(99));
+    }
+}
@@ -0,0 +1,74 @@
+package fr.vortex.parser.metrics;
+
+import fr.vortex.parser.VortexParser;
+import fr.vortex.parser.VortexParserPlaceholder;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricsRegistryTest {
+
+    @Test
+    void parsesAreCountedPerStage() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        VortexParser parser = VortexParser.builder().metrics().listener(metrics).build();
+
+        parser.parse("<red>a");
+        parser.parse("&cb");
+
+        assertEquals(2, metrics.parses().count());
+        assertEquals(2, metrics.stage(ParserStage.PLACEHOLDERS).count());
+        assertTrue(metrics.stage(ParserStage.LEGACY).count() > 0);
+        assertTrue(metrics.stage(ParserStage.MINIMESSAGE).count() > 0);
+    }
+
+    @Test
+    void placeholderCallsAreTimedAndSlowOnesCounted() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        VortexParser parser = VortexParser.builder()
+                .addPlaceholder(VortexParserPlaceholder.create("name", () -> "Steve"))
+                .metrics().listener(metrics).slowPlaceholderThreshold(Duration.ZERO)
+                .build();
+
+        parser.parse("<name> and <name>");
+        parser.parse("nothing");
+
+        assertEquals(1, metrics.placeholders().get("name").count());
+        assertEquals(1, metrics.slowCalls("name"));
+        assertEquals(0, metrics.slowCalls("other"));
+    }
+
+    @Test
+    void cacheLookupsFeedTheHitRate() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        VortexParser parser = VortexParser.builder().metrics().listener(metrics).Cache().maxSize(8).build();
+
+        parser.parse("<red>a");
+        parser.parse("<red>a");
+        parser.parse("<red>a");
+        parser.parse("<red>b");
+
+        assertEquals(0.5, metrics.cacheHitRate());
+    }
+
+    @Test
+    void resetClearsEveryCounter() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        VortexParser parser = VortexParser.builder()
+                .addPlaceholder(VortexParserPlaceholder.create("name", () -> "Steve"))
+                .metrics().listener(metrics).slowPlaceholderThreshold(Duration.ZERO)
+                .build();
+        parser.parse("<name>");
+
+        metrics.reset();
+
+        assertEquals(0, metrics.parses().count());
+        assertEquals(0, metrics.stage(ParserStage.PLACEHOLDERS).count());
+        assertTrue(metrics.placeholders().isEmpty());
+        assertEquals(0, metrics.slowCalls("name"));
+        assertEquals(0, metrics.cacheHitRate());
+    }
+}
@@ -0,0 +1,450 @@
+package fr.vortex.structrurate.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.TypeVariable;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates a {@code GeneratedCodec} for every class using the config annotations, reading and writing its
+ * fields directly (or through its accessors for private fields), and registers them as services so
+ * {@code PojoMapper} skips reflection for those classes.
+ * <p>
+ * Classes the generated code cannot reach or fully write (private classes, private fields without accessors,
+ * final fields, no visible no-arg constructor) are skipped with a note and keep being mapped by reflection.
+ */
+@SupportedAnnotationTypes({
+        ConfigCodecProcessor.CONFIG_VERSION,
+        ConfigCodecProcessor.CONFIG_KEY,
+        ConfigCodecProcessor.CONFIG_IGNORE,
+        ConfigCodecProcessor.CONFIG_CONVERTER,
+        ConfigCodecProcessor.NOT_NULL,
+        ConfigCodecProcessor.RANGE,
+        ConfigCodecProcessor.REGEX
+})
+public class ConfigCodecProcessor extends AbstractProcessor {
+
+    static final String ANNOTATIONS = "fr.vortex.structrurate.annotations.";
+    static final String CONFIG_VERSION = ANNOTATIONS + "ConfigVersion";
+    static final String CONFIG_KEY = ANNOTATIONS + "ConfigKey";
+    static final String CONFIG_IGNORE = ANNOTATIONS + "ConfigIgnore";
+    static final String CONFIG_CONVERTER = ANNOTATIONS + "ConfigConverter";
+    static final String NOT_NULL = ANNOTATIONS + "NotNull";
+    static final String RANGE = ANNOTATIONS + "Range";
+    static final String REGEX = ANNOTATIONS + "Regex";
+
+    private static final String GENERATED_CODEC = "fr.vortex.structrurate.mapper.GeneratedCodec";
+    private static final String TYPE_ADAPTER = "fr.vortex.structrurate.adapters.TypeAdapter";
+    private static final String SERVICE_FILE = "META-INF/services/" + GENERATED_CODEC;
+    private static final String SUFFIX = "_VortexCodec";
+
+    private Elements elements;
+    private Types types;
+    private final Set<String> seen = new LinkedHashSet<>();
+    private final Set<String> generated = new LinkedHashSet<>();
+
+    @Override
+    public synchronized void init(ProcessingEnvironment env) {
+        super.init(env);
+        this.elements = env.getElementUtils();
+        this.types = env.getTypeUtils();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        if (round.processingOver()) {
+            writeServices();
+            return false;
+        }
+        if (elements.getTypeElement(GENERATED_CODEC) == null) return false;
+
+        Set<TypeElement> configTypes = new LinkedHashSet<>();
+        for (TypeElement annotation : annotations) {
+            for (Element element : round.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() == ElementKind.CLASS) configTypes.add((TypeElement) element);
+                else if (element.getKind() == ElementKind.FIELD && element.getEnclosingElement().getKind() == ElementKind.CLASS) {
+                    configTypes.add((TypeElement) element.getEnclosingElement());
+                }
+            }
+        }
+
+        for (TypeElement type : configTypes) {
+            if (!seen.add(type.getQualifiedName().toString())) continue;
+            try {
+                generate(type);
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to write codec: " + e, type);
+            }
+        }
+        return false;
+    }
+
+    private void generate(TypeElement type) throws IOException {
+        String reason = unreachable(type);
+        if (reason != null) {
+            note(type, reason);
+            return;
+        }
+
+        List<Property> properties = new ArrayList<>();
+        Set<String> keys = new LinkedHashSet<>();
+        for (TypeElement cur = type; cur != null && !cur.getQualifiedName().contentEquals("java.lang.Object"); cur = superclass(cur)) {
+            for (VariableElement field : ElementFilter.fieldsIn(cur.getEnclosedElements())) {
+                if (field.getModifiers().contains(Modifier.STATIC) || annotation(field, CONFIG_IGNORE) != null) continue;
+
+                String key = field.getSimpleName().toString();
+                String custom = stringValue(annotation(field, CONFIG_KEY));
+                if (custom != null && !custom.isEmpty()) key = custom;
+                if (!keys.add(key)) continue;
+
+                Property property = property(type, cur, field, key);
+                if (property == null) return;
+                properties.add(property);
+            }
+        }
+
+        String packageName = elements.getPackageOf(type).getQualifiedName().toString();
+        String codecSimpleName = flatName(type, packageName) + SUFFIX;
+        String codecName = packageName.isEmpty() ? codecSimpleName : packageName + "." + codecSimpleName;
+
+        try (Writer w = processingEnv.getFiler().createSourceFile(codecName, type).openWriter()) {
+            w.write(source(type, packageName, codecSimpleName, properties));
+        }
+        generated.add(codecName);
+    }
+
+    private Property property(TypeElement type, TypeElement declaring, VariableElement field, String key) {
+        String owner = types.isSameType(types.erasure(declaring.asType()), types.erasure(type.asType()))
+                ? "instance" : "((" + erasure(declaring.asType()) + ") instance)";
+        String name = field.getSimpleName().toString();
+        TypeMirror fieldType = field.asType();
+        if (field.getModifiers().contains(Modifier.FINAL)) {
+            // Reflection writes final fields; generated code could not, so the class would load differently
+            note(type, "field " + name + " is final");
+            return null;
+        }
+        if (!reachable(fieldType, type) || !reachable(declaring.asType(), type)) {
+            note(type, "field " + name + " uses a type not visible from its package");
+            return null;
+        }
+
+        String read;
+        String write;
+        if (visible(field, declaring, type)) {
+            read = owner + "." + name;
+            write = owner + "." + name + " = " + cast(fieldType) + "value";
+        } else {
+            ExecutableElement getter = accessor(declaring, type, fieldType, "get" + capitalize(name), 0);
+            if (getter == null && fieldType.getKind() == TypeKind.BOOLEAN) getter = accessor(declaring, type, fieldType, "is" + capitalize(name), 0);
+            ExecutableElement setter = accessor(declaring, type, fieldType, "set" + capitalize(name), 1);
+            if (getter == null || setter == null) {
+                note(type, "field " + name + " is private and has no accessible accessors");
+                return null;
+            }
+            read = owner + "." + getter.getSimpleName() + "()";
+            write = owner + "." + setter.getSimpleName() + "(" + cast(fieldType) + "value)";
+        }
+
+        String converter = "null";
+        AnnotationMirror conv = annotation(field, CONFIG_CONVERTER);
+        if (conv != null) {
+            TypeMirror converterType = typeValue(conv);
+            TypeElement adapter = elements.getTypeElement(TYPE_ADAPTER);
+            if (converterType != null && adapter != null
+                    && types.isAssignable(types.erasure(converterType), types.erasure(adapter.asType()))) {
+                TypeElement converterElement = (TypeElement) types.asElement(converterType);
+                if (unreachable(converterElement) != null) {
+                    note(type, "converter " + converterElement.getQualifiedName() + " of " + name + " has no accessible no-arg constructor");
+                    return null;
+                }
+                converter = "new " + erasure(converterType) + "()";
+            }
+        }
+
+        return new Property(key, name, typeExpression(fieldType), converter, constraints(field), read, write);
+    }
+
+    /**
+     * {@code GeneratedCodec.Constraints} expression of the {@code @NotNull}, {@code @Range} and {@code @Regex}
+     * of {@code field}, or {@code null} when it has none.
+     */
+    private String constraints(VariableElement field) {
+        boolean notNull = annotation(field, NOT_NULL) != null;
+        AnnotationMirror range = annotation(field, RANGE);
+        String regex = stringValue(annotation(field, REGEX));
+        if (!notNull && range == null && regex == null) return null;
+
+        String min = "Long.MIN_VALUE";
+        String max = "Long.MAX_VALUE";
+        if (range != null) {
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> e : range.getElementValues().entrySet()) {
+                String bound = longLiteral(((Number) e.getValue().getValue()).longValue());
+                if (e.getKey().getSimpleName().contentEquals("min")) min = bound;
+                else if (e.getKey().getSimpleName().contentEquals("max")) max = bound;
+            }
+        }
+        return "new GeneratedCodec.Constraints(" + notNull + ", " + (range != null) + ", " + min + ", " + max + ", "
+                + (regex == null ? "null" : literal(regex)) + ")";
+    }
+
+    /**
+     * Why the generated class, living in the same package, cannot instantiate {@code type}; {@code null} when it can.
+     */
+    private String unreachable(TypeElement type) {
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) return "abstract classes are mapped by reflection";
+        for (Element e = type; e instanceof TypeElement t; e = e.getEnclosingElement()) {
+            if (t.getModifiers().contains(Modifier.PRIVATE)) return "private classes are mapped by reflection";
+            if (t.getNestingKind() == NestingKind.MEMBER && !t.getModifiers().contains(Modifier.STATIC)) return "inner classes are mapped by reflection";
+            if (t.getNestingKind() == NestingKind.LOCAL || t.getNestingKind() == NestingKind.ANONYMOUS) return "local classes are mapped by reflection";
+        }
+        List<ExecutableElement> constructors = ElementFilter.constructorsIn(type.getEnclosedElements());
+        for (ExecutableElement ctor : constructors) {
+            if (ctor.getParameters().isEmpty() && !ctor.getModifiers().contains(Modifier.PRIVATE)) return null;
+        }
+        return "no non-private no-arg constructor";
+    }
+
+    /**
+     * Whether generated code in the package of {@code from} can name {@code type} and its type arguments.
+     */
+    private boolean reachable(TypeMirror type, TypeElement from) {
+        switch (type.getKind()) {
+            case DECLARED -> {
+                for (Element e = types.asElement(type); e instanceof TypeElement t; e = e.getEnclosingElement()) {
+                    if (t.getModifiers().contains(Modifier.PRIVATE)) return false;
+                    if (!t.getModifiers().contains(Modifier.PUBLIC) && !elements.getPackageOf(t).equals(elements.getPackageOf(from))) return false;
+                }
+                for (TypeMirror argument : ((DeclaredType) type).getTypeArguments()) {
+                    if (!reachable(argument, from)) return false;
+                }
+                return true;
+            }
+            case ARRAY -> {
+                return reachable(((ArrayType) type).getComponentType(), from);
+            }
+            case WILDCARD -> {
+                TypeMirror bound = ((WildcardType) type).getExtendsBound();
+                return bound == null || reachable(bound, from);
+            }
+            case TYPEVAR -> {
+                return reachable(types.erasure(type), from);
+            }
+            default -> {
+                return true;
+            }
+        }
+    }
+
+    private boolean visible(Element member, TypeElement declaring, TypeElement from) {
+        Set<Modifier> mods = member.getModifiers();
+        if (mods.contains(Modifier.PRIVATE)) return false;
+        if (mods.contains(Modifier.PUBLIC) && declaring.getModifiers().contains(Modifier.PUBLIC)) return true;
+        return elements.getPackageOf(declaring).equals(elements.getPackageOf(from));
+    }
+
+    private ExecutableElement accessor(TypeElement declaring, TypeElement from, TypeMirror fieldType, String name, int params) {
+        for (ExecutableElement method : ElementFilter.methodsIn(declaring.getEnclosedElements())) {
+            if (!method.getSimpleName().contentEquals(name) || method.getParameters().size() != params) continue;
+            if (method.getModifiers().contains(Modifier.STATIC) || !visible(method, declaring, from)) continue;
+            TypeMirror type = params == 0 ? method.getReturnType() : method.getParameters().get(0).asType();
+            if (types.isSameType(types.erasure(type), types.erasure(fieldType))) return method;
+        }
+        return null;
+    }
+
+    private TypeElement superclass(TypeElement type) {
+        TypeMirror parent = type.getSuperclass();
+        return parent.getKind() == TypeKind.DECLARED ? (TypeElement) types.asElement(parent) : null;
+    }
+
+    /**
+     * Java expression building the {@code java.lang.reflect.Type} of {@code type}.
+     */
+    private String typeExpression(TypeMirror type) {
+        switch (type.getKind()) {
+            case DECLARED -> {
+                DeclaredType declared = (DeclaredType) type;
+                if (declared.getTypeArguments().isEmpty()) return erasure(type) + ".class";
+                StringBuilder out = new StringBuilder("ConfigTypes.parameterized(").append(erasure(type)).append(".class");
+                for (TypeMirror argument : declared.getTypeArguments()) out.append(", ").append(typeExpression(argument));
+                return out.append(')').toString();
+            }
+            case WILDCARD -> {
+                TypeMirror bound = ((WildcardType) type).getExtendsBound();
+                return bound == null ? "Object.class" : typeExpression(bound);
+            }
+            case TYPEVAR -> {
+                return typeExpression(((TypeVariable) type).getUpperBound());
+            }
+            case ARRAY -> {
+                return erasure(type) + ".class";
+            }
+            case INTERSECTION -> {
+                return typeExpression(types.erasure(type));
+            }
+            default -> {
+                return type.getKind().isPrimitive() ? type.toString() + ".class" : "Object.class";
+            }
+        }
+    }
+
+    private String cast(TypeMirror type) {
+        if (type.getKind().isPrimitive()) return "(" + types.boxedClass((javax.lang.model.type.PrimitiveType) type).getQualifiedName() + ") ";
+        return "(" + erasure(type) + ") ";
+    }
+
+    private String erasure(TypeMirror type) {
+        TypeMirror erased = types.erasure(type);
+        if (erased instanceof ArrayType array) return erasure(array.getComponentType()) + "[]";
+        if (erased.getKind() == TypeKind.DECLARED) return ((TypeElement) types.asElement(erased)).getQualifiedName().toString();
+        return erased.toString();
+    }
+
+    private static String flatName(TypeElement type, String packageName) {
+        String qualified = type.getQualifiedName().toString();
+        return (packageName.isEmpty() ? qualified : qualified.substring(packageName.length() + 1)).replace('.', '_');
+    }
+
+    private String source(TypeElement type, String packageName, String simpleName, List<Property> properties) {
+        String target = erasure(type.asType());
+        StringBuilder out = new StringBuilder(1024);
+        if (!packageName.isEmpty()) out.append("package ").append(packageName).append(";\n\n");
+        out.append("import fr.vortex.structrurate.mapper.ConfigTypes;\n")
+                .append("import fr.vortex.structrurate.mapper.GeneratedCodec;\n\n")
+                .append("import java.util.List;\n\n")
+                .append("/**\n * Generated by {@code ConfigCodecProcessor} for {@code ").append(target).append("}. Do not edit.\n */\n")
+                .append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n")
+                .append("public final class ").append(simpleName).append(" implements GeneratedCodec<").append(target).append("> {\n\n")
+                .append("    private static final List<GeneratedCodec.Property> PROPERTIES = List.of(");
+        for (int i = 0; i < properties.size(); i++) {
+            Property p = properties.get(i);
+            out.append(i == 0 ? "\n" : ",\n").append("            new GeneratedCodec.Property(")
+                    .append(literal(p.key)).append(", ").append(literal(p.name)).append(", ")
+                    .append(p.type).append(", ").append(p.converter);
+            if (p.constraints != null) out.append(", ").append(p.constraints);
+            out.append(')');
+        }
+        out.append(");\n\n");
+
+        out.append("    @Override\n    public Class<").append(target).append("> type() {\n        return ").append(target).append(".class;\n    }\n\n")
+                .append("    @Override\n    public ").append(target).append(" newInstance() {\n        return new ").append(target).append("();\n    }\n\n")
+                .append("    @Override\n    public List<GeneratedCodec.Property> properties() {\n        return PROPERTIES;\n    }\n\n");
+
+        out.append("    @Override\n    public Object get(").append(target).append(" instance, int index) {\n        return switch (index) {\n");
+        for (int i = 0; i < properties.size(); i++) {
+            out.append("            case ").append(i).append(" -> ").append(properties.get(i).read).append(";\n");
+        }
+        out.append("            default -> throw new IndexOutOfBoundsException(index);\n        };\n    }\n\n");
+
+        out.append("    @Override\n    public void set(").append(target).append(" instance, int index, Object value) {\n        switch (index) {\n");
+        for (int i = 0; i < properties.size(); i++) {
+            out.append("            case ").append(i).append(" -> ").append(properties.get(i).write).append(";\n");
+        }
+        out.append("            default -> throw new IndexOutOfBoundsException(index);\n        }\n    }\n}\n");
+        return out.toString();
+    }
+
+    private void writeServices() {
+        if (generated.isEmpty()) return;
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+            try (Writer w = file.openWriter()) {
+                for (String name : generated) w.write(name + "\n");
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to write " + SERVICE_FILE + ": " + e);
+        }
+    }
+
+    private AnnotationMirror annotation(Element element, String name) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(name)) return mirror;
+        }
+        return null;
+    }
+
+    private static String stringValue(AnnotationMirror mirror) {
+        AnnotationValue value = value(mirror);
+        return value == null ? null : value.getValue().toString();
+    }
+
+    private static TypeMirror typeValue(AnnotationMirror mirror) {
+        AnnotationValue value = value(mirror);
+        return value != null && value.getValue() instanceof TypeMirror type ? type : null;
+    }
+
+    private static AnnotationValue value(AnnotationMirror mirror) {
+        if (mirror == null) return null;
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> e : mirror.getElementValues().entrySet()) {
+            if (e.getKey().getSimpleName().contentEquals("value")) return e.getValue();
+        }
+        return null;
+    }
+
+    private void note(TypeElement type, String reason) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                "No codec generated for " + type.getQualifiedName() + " (" + reason + "); it is mapped by reflection", type);
+    }
+
+    private static String capitalize(String name) {
+        return name.isEmpty() ? name : Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static String longLiteral(long value) {
+        if (value == Long.MIN_VALUE) return "Long.MIN_VALUE";
+        return value + "L";
+    }
+
+    private static String literal(String value) {
+        StringBuilder out = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char ch = value.charAt(i);
+            switch (ch) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> out.append(ch);
+            }
+        }
+        return out.append('"').toString();
+    }
+
+    private record Property(String key, String name, String type, String converter, String constraints, String read, String write) {
+    }
+}
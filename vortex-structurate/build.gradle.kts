@@ -7,4 +7,6 @@ dependencies {
 
     compileOnly("org.projectlombok:lombok:1.18.42")
     annotationProcessor("org.projectlombok:lombok:1.18.42")
+
+    testAnnotationProcessor(project(":vortex-structurate-processor"))
 }
@@ -0,0 +1,59 @@
+package fr.vortex.structrurate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Write-behind flusher shared by every auto-saving {@link VortexStructurate}: a single daemon thread times
+ * the flushes, each write runs on its own virtual thread, and a shutdown hook flushes whatever is still dirty,
+ * waiting for writes already in progress.
+ */
+final class AutoSaver {
+
+    private static final Logger log = Logger.getLogger(AutoSaver.class.getName());
+
+    private static final Set<VortexStructurate<?>> DIRTY = ConcurrentHashMap.newKeySet();
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "vortex-autosave");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(AutoSaver::flushAll, "vortex-autosave-shutdown"));
+    }
+
+    private AutoSaver() {
+    }
+
+    static void dirty(VortexStructurate<?> config) {
+        DIRTY.add(config);
+    }
+
+    static void clean(VortexStructurate<?> config) {
+        DIRTY.remove(config);
+    }
+
+    static void schedule(VortexStructurate<?> config, Duration delay) {
+        SCHEDULER.schedule(() -> Thread.ofVirtual().name("vortex-autosave-write").start(config::flushScheduled),
+                delay.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    private static void flushAll() {
+        // Copied, as a failed flush marks its config dirty again
+        for (VortexStructurate<?> config : List.copyOf(DIRTY)) {
+            try {
+                config.flush();
+            } catch (RuntimeException e) {
+                log.log(Level.WARNING, "Failed to flush " + config.getFile() + " on shutdown", e);
+            }
+        }
+    }
+}
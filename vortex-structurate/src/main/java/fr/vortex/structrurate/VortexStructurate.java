@@ -3,32 +3,48 @@ package fr.vortex.structrurate;
 import fr.vortex.structrurate.adapters.TypeAdapter;
 import fr.vortex.structrurate.annotations.ConfigVersion;
 import fr.vortex.structrurate.loader.ConfigIO;
+import fr.vortex.structrurate.loader.ConfigLayout;
+import fr.vortex.structrurate.loader.ConfigSnapshot;
+import fr.vortex.structrurate.mapper.ConfigValidationException;
+import fr.vortex.structrurate.mapper.ConfigViolation;
 import fr.vortex.structrurate.mapper.PojoMapper;
 import fr.vortex.structrurate.migrations.ConfigMigration;
 import fr.vortex.structrurate.node.ConfigNode;
+import fr.vortex.structrurate.node.FrozenConfigNode;
+import fr.vortex.structrurate.watch.ConfigChange;
+import lombok.AccessLevel;
 import lombok.Getter;
 
+import java.math.BigInteger;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 @Getter
-public class VortexStructurate<T> {
+public class VortexStructurate<T> implements AutoCloseable {
 
     private static final Logger log = Logger.getLogger(VortexStructurate.class.getName());
 
     private final Class<T> type;
     private final Path file;
     private final boolean autoSave;
+    private final Duration autoSaveDelay;
     private final boolean autoUpdate;
     private final boolean preserveComments;
     private final boolean failOnValidationErrors;
     private final boolean failOnUnknownFields;
+    private final boolean snapshot;
 
     private final PojoMapper mapper;
     private final ConfigIO io;
@@ -36,17 +52,42 @@ public class VortexStructurate<T> {
 
     private final List<String> headerComments = new ArrayList<>();
     private final Object lock = new Object();
+    @Getter(AccessLevel.NONE)
+    private final Consumer<List<ConfigViolation>> violationHandler = this::onViolations;
+    @Getter(AccessLevel.NONE)
+    private final List<Consumer<String>> writeListeners = new CopyOnWriteArrayList<>();
+
+    @Getter(AccessLevel.NONE)
+    private Map<String, Object> lastTree;
+    @Getter(AccessLevel.NONE)
+    private volatile FrozenConfigNode frozenTree;
+    @Getter(AccessLevel.NONE)
+    private ConfigLayout layout;
+
+    @Getter(AccessLevel.NONE)
+    private long schema;
+    @Getter(AccessLevel.NONE)
+    private boolean schemaComputed;
+
+    @Getter(AccessLevel.NONE)
+    private volatile T current;
+    @Getter(AccessLevel.NONE)
+    private final AtomicReference<Map<String, Object>> dirty = new AtomicReference<>();
+    @Getter(AccessLevel.NONE)
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
 
     VortexStructurate(Builder<T> b) {
         this.type = b.type;
         this.file = b.file;
         this.autoSave = b.autoSave;
+        this.autoSaveDelay = b.autoSaveDelay;
         this.autoUpdate = b.autoUpdate;
         this.preserveComments = b.preserveComments;
         this.failOnValidationErrors = b.failOnValidationErrors;
         this.failOnUnknownFields = b.failOnUnknownFields;
+        this.snapshot = b.snapshot;
         this.mapper = b.mapper;
-        this.io = new ConfigIO();
+        this.io = b.io != null ? b.io : new ConfigIO();
         this.migrations = new ConcurrentHashMap<>(b.migrations);
     }
 
@@ -56,66 +97,288 @@ public class VortexStructurate<T> {
 
     public T load() {
         synchronized (lock) {
+            return loadInternal().value();
+        }
+    }
+
+    private ConfigChange<T> loadInternal() {
+        // Stamped before reading, so a concurrent edit can only make the snapshot look stale
+        ConfigSnapshot.Stamp stamp = snapshot ? ConfigSnapshot.Stamp.of(file) : null;
+        ConfigSnapshot.Data cached = stamp != null ? ConfigSnapshot.read(file, stamp, schema()) : null;
+
+        List<String> header;
+        ConfigNode rawNode;
+        if (cached != null) {
+            header = cached.header();
+            rawNode = new ConfigNode(cached.tree());
+        } else {
             ConfigIO.ReadResult rr = io.readWithHeader(file);
-            headerComments.clear();
-            if (preserveComments) headerComments.addAll(rr.headerComments());
-
-            ConfigNode rawNode = new ConfigNode(rr.map());
-            int currentVersion = nodeVersion(rawNode);
-            int targetVersion = codeVersion();
-
-            if (currentVersion < targetVersion) {
-                log.log(Level.INFO, "Migration de la config de {0} vers {1} pour le fichier {2}", new Object[]{currentVersion, targetVersion, file.getFileName()});
-                for (int v = currentVersion + 1; v <= targetVersion; v++) {
-                    ConfigMigration mig = migrations.get(v);
-                    if (mig != null) {
-                        try {
-                            mig.migrate(rawNode);
-                            log.log(Level.FINE, "Migration appliquée pour la version {0}", v);
-                        } catch (Exception e) {
-                            log.log(Level.WARNING, "Échec de la migration pour la version " + v + " pour " + file, e);
-                        }
+            header = rr.headerComments();
+            rawNode = readMigrated(rr);
+        }
+        headerComments.clear();
+        if (preserveComments) headerComments.addAll(header);
+
+        T obj = mapper.fromNode(type, rawNode, failOnUnknownFields, violationHandler);
+        ConfigChange<T> change = new ConfigChange<>(obj, ConfigChange.diff(lastTree, rawNode.map()));
+        lastTree = rawNode.map();
+        frozenTree = null;
+        current = obj;
+
+        if (autoUpdate && (cached == null || !cached.synced())) {
+            saveInternal(obj);
+        } else if (stamp != null && cached == null) {
+            ConfigSnapshot.write(file, stamp, schema(), new ConfigSnapshot.Data(List.copyOf(header), rawNode.map(), false));
+        }
+
+        return change;
+    }
+
+    private ConfigNode readMigrated(ConfigIO.ReadResult rr) {
+        ConfigNode rawNode = new ConfigNode(rr.map());
+        int currentVersion = nodeVersion(rawNode);
+        int targetVersion = codeVersion();
+
+        if (currentVersion < targetVersion) {
+            log.log(Level.INFO, "Migration de la config de {0} vers {1} pour le fichier {2}", new Object[]{currentVersion, targetVersion, file.getFileName()});
+            for (int v = currentVersion + 1; v <= targetVersion; v++) {
+                ConfigMigration mig = migrations.get(v);
+                if (mig != null) {
+                    try {
+                        mig.migrate(rawNode);
+                        log.log(Level.FINE, "Migration appliquée pour la version {0}", v);
+                    } catch (Exception e) {
+                        log.log(Level.WARNING, "Échec de la migration pour la version " + v + " pour " + file, e);
                     }
                 }
             }
+        }
 
-            rawNode.set("_config_version", targetVersion);
-
-            T defaults = mapper.instantiateDefaults(type);
-            ConfigNode defaultNode = mapper.toNode(defaults);
-            mergeDefaults(rawNode, defaultNode);
-
-            T obj = mapper.fromNode(type, rawNode);
+        rawNode.set("_config_version", targetVersion);
 
-            if (autoUpdate) {
-                saveInternal(obj);
-            }
+        T defaults = mapper.instantiateDefaults(type);
+        ConfigNode defaultNode = mapper.toNode(defaults);
+        mergeDefaults(rawNode, defaultNode);
+        return rawNode;
+    }
 
-            return obj;
+    private void onViolations(List<ConfigViolation> violations) {
+        if (failOnValidationErrors) throw new ConfigValidationException(file.toString(), violations);
+        if (failOnUnknownFields) {
+            List<ConfigViolation> unknown = violations.stream().filter(ConfigViolation::unknownKey).toList();
+            if (!unknown.isEmpty()) throw new ConfigValidationException(file.toString(), unknown);
+        }
+        for (ConfigViolation v : violations) {
+            log.log(Level.WARNING, "Valeur invalide dans {0} : {1}", new Object[]{file.getFileName(), v});
         }
     }
 
+    /**
+     * Writes {@code instance} to the file. With {@code autoSave} the write is deferred, see {@link #markDirty(Object)}.
+     */
     public void save(T instance) {
+        if (autoSave) {
+            markDirty(instance);
+            return;
+        }
         synchronized (lock) {
             saveInternal(instance);
         }
     }
 
-    private void saveInternal(T instance) {
-        ConfigNode node = mapper.toNode(instance);
+    /**
+     * Schedules {@code instance} to be written after {@code autoSaveDelay} and returns immediately.
+     * Every call within that window is coalesced into a single write of the latest instance.
+     * <p>
+     * {@code instance} is encoded on the calling thread, so the deferred write sees it as it is now and
+     * never reads it while the caller keeps modifying it; later changes need another call.
+     */
+    public void markDirty(T instance) {
+        Map<String, Object> tree = encode(instance);
+        current = instance;
+        dirty.set(tree);
+        AutoSaver.dirty(this);
+        if (flushScheduled.compareAndSet(false, true)) AutoSaver.schedule(this, autoSaveDelay);
+    }
+
+    /**
+     * Marks the last loaded or saved instance dirty, after it was modified in place.
+     */
+    public void markDirty() {
+        T instance = current;
+        if (instance != null) markDirty(instance);
+    }
+
+    /**
+     * Writes the pending instance now, if any. Waits for a write already in progress, so nothing is pending
+     * once it returns; a failed write stays pending and is retried after {@code autoSaveDelay}.
+     */
+    public void flush() {
+        synchronized (lock) {
+            AutoSaver.clean(this);
+            Map<String, Object> tree = dirty.getAndSet(null);
+            if (tree == null) return;
+
+            boolean written = false;
+            try {
+                written = write(tree);
+            } finally {
+                if (!written) retryLater(tree);
+            }
+        }
+    }
+
+    private void retryLater(Map<String, Object> tree) {
+        // An instance marked dirty meanwhile is newer and already scheduled
+        if (!dirty.compareAndSet(null, tree)) return;
+        AutoSaver.dirty(this);
+        if (flushScheduled.compareAndSet(false, true)) AutoSaver.schedule(this, autoSaveDelay);
+    }
+
+    void flushScheduled() {
+        flushScheduled.set(false);
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.log(Level.WARNING, "Échec de la sauvegarde automatique de " + file + ", nouvel essai dans " + autoSaveDelay, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+
+    /**
+     * Returns whether the file was written.
+     */
+    private boolean saveInternal(T instance) {
+        current = instance;
+        return write(encode(instance));
+    }
 
+    /**
+     * Detached tree of {@code instance} as YAML would read it back, sharing nothing with the instance.
+     */
+    private Map<String, Object> encode(T instance) {
+        ConfigNode node = mapper.toNode(instance);
         if (node.get("_config_version") == null) {
             node.set("_config_version", codeVersion());
         }
+        return yamlTree(node.asMap());
+    }
 
-        Map<String, Object> outMap = new LinkedHashMap<>(node.asMap());
+    /**
+     * Writes a tree from {@link #encode}; returns whether the file was written.
+     */
+    private boolean write(Map<String, Object> outMap) {
         List<String> comments = preserveComments ? headerComments : null;
-        io.writeWithHeader(file, outMap, comments);
+        String text;
+        if (preserveComments) {
+            ConfigLayout written = io.writePreserving(file, outMap, comments, layout);
+            if (written == null) return false;
+            layout = written;
+            text = written.source();
+        } else {
+            text = io.render(outMap, null);
+            if (!io.writeText(file, text)) return false;
+        }
+
+        // What a reload of this write would read, so the next reload only reports external changes
+        lastTree = outMap;
+        frozenTree = null;
+        for (Consumer<String> listener : writeListeners) listener.accept(text);
+
+        if (snapshot) {
+            ConfigSnapshot.Stamp stamp = ConfigSnapshot.Stamp.of(file);
+            if (stamp != null) {
+                List<String> header = comments != null ? List.copyOf(comments) : List.of();
+                ConfigSnapshot.write(file, stamp, schema(), new ConfigSnapshot.Data(header, lastTree, true));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Calls {@code listener} with the full text of every write of the file by this config, while the config
+     * lock is held. Lets a watcher tell these writes from external edits.
+     */
+    public void addWriteListener(Consumer<String> listener) {
+        writeListeners.add(listener);
+    }
+
+    public void removeWriteListener(Consumer<String> listener) {
+        writeListeners.remove(listener);
+    }
+
+    /**
+     * Copy of an encoded tree with the value types a YAML read of it yields: enums as names, narrow
+     * integers and characters widened, and integers as small as {@code Integer} when they fit.
+     */
+    private static Object yamlTree(Object value) {
+        return switch (value) {
+            case Map<?, ?> m -> {
+                Map<String, Object> out = new LinkedHashMap<>();
+                for (Map.Entry<?, ?> e : m.entrySet()) out.put(String.valueOf(e.getKey()), yamlTree(e.getValue()));
+                yield out;
+            }
+            case Collection<?> c -> {
+                List<Object> out = new ArrayList<>(c.size());
+                for (Object o : c) out.add(yamlTree(o));
+                yield out;
+            }
+            case Enum<?> e -> e.name();
+            case Character ch -> ch.toString();
+            case Short n -> n.intValue();
+            case Byte n -> n.intValue();
+            case Long n -> n == n.intValue() ? (Object) n.intValue() : n;
+            case BigInteger n -> n.bitLength() < 32 ? (Object) n.intValue() : n.bitLength() < 64 ? (Object) n.longValue() : n;
+            case Float n -> Double.valueOf(n.toString());
+            case null, default -> value;
+        };
     }
 
-    public void reload() {
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> yamlTree(Map<String, Object> map) {
+        return (Map<String, Object>) yamlTree((Object) map);
+    }
+
+    /**
+     * Fingerprint of the code version and defaults, computed once; a snapshot taken under another one is stale.
+     */
+    private long schema() {
+        if (!schemaComputed) {
+            schema = ConfigSnapshot.fingerprint(codeVersion(), mapper.toNode(mapper.instantiateDefaults(type)).map());
+            schemaComputed = true;
+        }
+        return schema;
+    }
+
+    /**
+     * The tree of the last load or save, frozen for allocation-free {@link fr.vortex.structrurate.node.ConfigPath} lookups.
+     */
+    public FrozenConfigNode tree() {
+        FrozenConfigNode tree = frozenTree;
+        if (tree != null) return tree;
+        synchronized (lock) {
+            if (frozenTree == null) frozenTree = lastTree == null ? FrozenConfigNode.empty() : FrozenConfigNode.of(lastTree);
+            return frozenTree;
+        }
+    }
+
+    /**
+     * Re-reads the file, applying migrations and defaults like {@link #load()}.
+     */
+    public T reload() {
+        return reloadChanges().value();
+    }
+
+    /**
+     * Re-reads the file and reports which keys changed since the previous load.
+     */
+    public ConfigChange<T> reloadChanges() {
         synchronized (lock) {
-            headerComments.clear();
+            return loadInternal();
         }
     }
 
@@ -159,22 +422,50 @@ public class VortexStructurate<T> {
         private Class<T> type;
         private Path file;
         private boolean autoSave = false;
+        private Duration autoSaveDelay = Duration.ofSeconds(1);
         private boolean autoUpdate = true;
         private boolean preserveComments = true;
         private boolean failOnValidationErrors = false;
         private boolean failOnUnknownFields = false;
+        private boolean snapshot = false;
 
-        private final PojoMapper mapper = new PojoMapper();
+        private PojoMapper mapper = new PojoMapper();
+        private ConfigIO io;
         private final Map<Integer, ConfigMigration> migrations = new LinkedHashMap<>();
 
         public Builder<T> type(Class<T> type) { this.type = type; return this; }
         public Builder<T> file(Path file) { this.file = file; return this; }
         public Builder<T> autoSave(boolean b) { this.autoSave = b; return this; }
+        public Builder<T> autoSaveDelay(Duration delay) {
+            if (delay == null || delay.isNegative()) throw new IllegalArgumentException("autoSaveDelay must be a non-negative duration");
+            this.autoSaveDelay = delay;
+            return this;
+        }
         public Builder<T> autoUpdate(boolean b) { this.autoUpdate = b; return this; }
         public Builder<T> preserveComments(boolean b) { this.preserveComments = b; return this; }
         public Builder<T> failOnValidationErrors(boolean b) { this.failOnValidationErrors = b; return this; }
+
+        /**
+         * Rejects a file with keys no field maps to, even when other violations are only logged.
+         */
         public Builder<T> failOnUnknownFields(boolean b) { this.failOnUnknownFields = b; return this; }
 
+        /**
+         * Keeps a binary snapshot of the loaded tree next to the file, so an unchanged file loads without
+         * YAML parsing, migrations or default merging.
+         */
+        public Builder<T> snapshot(boolean b) { this.snapshot = b; return this; }
+
+        /**
+         * Shares a mapper, and its class plans, between configs. Adapters registered before this call are dropped.
+         */
+        public Builder<T> mapper(PojoMapper mapper) { this.mapper = mapper; return this; }
+
+        /**
+         * Shares a {@link ConfigIO} between configs; it is safe for concurrent use.
+         */
+        public Builder<T> io(ConfigIO io) { this.io = io; return this; }
+
         public <C> Builder<T> registerTypeAdapter(Class<C> cls, TypeAdapter<C> adapter) {
             this.mapper.registerAdapter(cls, adapter);
             return this;
@@ -2,63 +2,75 @@ package fr.vortex.structrurate.loader;
 
 import fr.vortex.structrurate.node.ConfigNode;
 import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.LoaderOptions;
 import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.parser.ParserImpl;
+import org.yaml.snakeyaml.reader.StreamReader;
 
 import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
-import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class ConfigIO {
 
     private static final Logger log = Logger.getLogger(ConfigIO.class.getName());
+    // Larger files are generated data rather than hand-edited configs; they are always re-dumped
+    private static final long LAYOUT_LIMIT = 2L << 20;
 
-    private final Yaml yaml;
+    private final DumperOptions dumperOptions;
+    private final LoaderOptions loaderOptions;
+    private final Queue<Yaml> yamls = new ConcurrentLinkedQueue<>();
 
     public ConfigIO() {
-        DumperOptions dumperOptions = new DumperOptions();
+        dumperOptions = new DumperOptions();
         dumperOptions.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
         dumperOptions.setPrettyFlow(true);
         dumperOptions.setIndent(2);
         dumperOptions.setDefaultScalarStyle(DumperOptions.ScalarStyle.PLAIN);
-        yaml = new Yaml(dumperOptions);
+
+        // Config files are trusted and may be large generated dumps; the tree builder shares aliased
+        // collections instead of copying them, so the alias limit is not needed either
+        loaderOptions = new LoaderOptions();
+        loaderOptions.setCodePointLimit(Integer.MAX_VALUE);
+    }
+
+    /**
+     * SnakeYAML instances are not thread-safe; each read or write borrows one so a single ConfigIO
+     * can be shared by concurrent loads.
+     */
+    private Yaml borrowYaml() {
+        Yaml yaml = yamls.poll();
+        return yaml != null ? yaml : new Yaml(dumperOptions);
+    }
+
+    private void releaseYaml(Yaml yaml) {
+        yamls.offer(yaml);
     }
 
     public record ReadResult(Map<String, Object> map, List<String> headerComments) {
     }
 
+    /**
+     * Reads the leading comment block as header, then streams the rest of the file through the YAML parser
+     * into plain maps, without buffering the body as a string.
+     */
     @SuppressWarnings("unchecked")
     public ReadResult readWithHeader(Path file) {
         List<String> header = new ArrayList<>();
         if (Files.notExists(file)) return new ReadResult(new LinkedHashMap<>(), header);
 
         try (BufferedReader r = Files.newBufferedReader(file)) {
-            String line;
-            boolean inHeader = true;
-            StringBuilder yamlBody = new StringBuilder();
-
-            while ((line = r.readLine()) != null) {
-                String trimmed = line.trim();
-                if (inHeader) {
-                    if (trimmed.startsWith("#")) {
-                        header.add(line);
-                    } else if (!trimmed.isEmpty()) {
-                        inHeader = false;
-                        yamlBody.append(line).append("\n");
-                    }
-                } else {
-                    yamlBody.append(line).append("\n");
-                }
-            }
-
-            Object data = !yamlBody.isEmpty() ? yaml.load(yamlBody.toString()) : null;
-            Map<String, Object> map = data instanceof Map ? new LinkedHashMap<>((Map<String,Object>)data) : new LinkedHashMap<>();
+            Reader body = splitHeader(r, header);
+            Object data = body != null ? YamlTreeBuilder.build(new ParserImpl(new StreamReader(body), loaderOptions)) : null;
+            Map<String, Object> map = data instanceof Map ? (Map<String, Object>) data : new LinkedHashMap<>();
             return new ReadResult(map, header);
         } catch (Exception e) {
             log.log(Level.SEVERE, "Failed to read config file " + file, e);
@@ -66,28 +78,103 @@ public class ConfigIO {
         }
     }
 
-    public void writeWithHeader(Path file, Map<String, Object> data, List<String> headerComments) {
+    /**
+     * Consumes the comment and blank lines before the first YAML line, collecting the comments into
+     * {@code header}. Returns a reader positioned on that first line, or {@code null} if there is none.
+     */
+    private static Reader splitHeader(BufferedReader r, List<String> header) throws IOException {
+        String line;
+        while ((line = r.readLine()) != null) {
+            String trimmed = line.trim();
+            if (trimmed.startsWith("#")) {
+                header.add(line);
+            } else if (!trimmed.isEmpty()) {
+                return new PrefixedReader(line + "\n", r);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Atomically replaces {@code file}; returns {@code false} if the write failed, leaving the file untouched.
+     */
+    public boolean writeWithHeader(Path file, Map<String, Object> data, List<String> headerComments) {
+        return writeText(file, render(data, headerComments));
+    }
+
+    /**
+     * Writes {@code data} while keeping the comments and layout of the file on disk: changed values are
+     * patched in place when possible, otherwise the file is re-dumped under {@code headerComments}.
+     * Returns the layout now on disk, to pass back as {@code previous} on the next save, or {@code null}
+     * if the write failed.
+     */
+    public ConfigLayout writePreserving(Path file, Map<String, Object> data, List<String> headerComments, ConfigLayout previous) {
+        String current = readForLayout(file);
+        ConfigLayout layout = null;
+        String text = null;
+        if (current != null) {
+            layout = previous != null && previous.source().equals(current) ? previous : ConfigLayout.of(current);
+            Yaml yaml = borrowYaml();
+            try {
+                text = layout.patch(data == null ? Collections.emptyMap() : data, yaml, loaderOptions);
+            } finally {
+                releaseYaml(yaml);
+            }
+        }
+        if (text == null) text = render(data, headerComments);
+        if (text.equals(current)) return layout;
+        return writeText(file, text) ? ConfigLayout.of(text) : null;
+    }
+
+    /**
+     * The full text {@link #writeWithHeader} writes for {@code data}.
+     */
+    public String render(Map<String, Object> data, List<String> headerComments) {
+        StringBuilder out = new StringBuilder();
+        if (headerComments != null) {
+            for (String h : headerComments) out.append(h).append(System.lineSeparator());
+            if (!headerComments.isEmpty()) out.append(System.lineSeparator());
+        }
+
+        Yaml yaml = borrowYaml();
+        try {
+            return out.append(yaml.dump(data == null ? Collections.emptyMap() : data)).toString();
+        } finally {
+            releaseYaml(yaml);
+        }
+    }
+
+    /**
+     * The file content if it is small enough to keep as a layout, otherwise {@code null}.
+     */
+    private String readForLayout(Path file) {
+        try {
+            if (!Files.isRegularFile(file) || Files.size(file) > LAYOUT_LIMIT) return null;
+            return Files.readString(file);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Atomically replaces {@code file} with {@code text} in UTF-8, or leaves it alone when it already holds
+     * exactly these bytes. Returns {@code false} if the write failed.
+     */
+    public boolean writeText(Path file, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
         Path tmp = file.resolveSibling(file.getFileName().toString() + ".tmp");
         try {
-            Files.createDirectories(file.getParent());
-            try (BufferedWriter w = Files.newBufferedWriter(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
-                if (headerComments != null) {
-                    for (String h : headerComments) {
-                        w.write(h);
-                        w.newLine();
-                    }
-                    if (!headerComments.isEmpty()) {
-                        w.newLine();
-                    }
-                }
-
-                String dump = yaml.dump(data == null ? Collections.emptyMap() : data);
-                w.write(dump);
+            if (Files.isRegularFile(file) && Files.size(file) == bytes.length && Arrays.equals(Files.readAllBytes(file), bytes)) {
+                return true;
             }
+            Files.createDirectories(file.getParent());
+            Files.write(tmp, bytes);
             Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return true;
         } catch (IOException e) {
             log.log(Level.SEVERE, "Failed to write config file " + file, e);
             try { Files.deleteIfExists(tmp); } catch (IOException ignored) {}
+            return false;
         }
     }
 
@@ -100,4 +187,36 @@ public class ConfigIO {
         ReadResult r = readWithHeader(file);
         return r.headerComments;
     }
-}
\ No newline at end of file
+
+    /**
+     * Serves {@code head} then the rest of {@code tail}.
+     */
+    private static final class PrefixedReader extends Reader {
+
+        private final String head;
+        private final Reader tail;
+        private int pos;
+
+        PrefixedReader(String head, Reader tail) {
+            this.head = head;
+            this.tail = tail;
+        }
+
+        @Override
+        public int read(char[] buf, int off, int len) throws IOException {
+            if (len == 0) return 0;
+            if (pos < head.length()) {
+                int n = Math.min(len, head.length() - pos);
+                head.getChars(pos, pos + n, buf, off);
+                pos += n;
+                return n;
+            }
+            return tail.read(buf, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            tail.close();
+        }
+    }
+}
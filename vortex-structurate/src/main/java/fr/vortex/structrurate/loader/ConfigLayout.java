@@ -0,0 +1,203 @@
+package fr.vortex.structrurate.loader;
+
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.parser.ParserImpl;
+import org.yaml.snakeyaml.reader.StreamReader;
+
+import java.io.StringReader;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Source text of a config file as last read or written, used to turn a new tree into small textual edits
+ * so comments and formatting survive a save.
+ * <p>
+ * Changed scalar values of block mappings are replaced in place and new keys are appended at the end of
+ * their block. Anything else (removed keys, changed lists, multi-line values, flow mappings, anchored or
+ * aliased values) makes {@link #patch} give up, and the caller falls back to a full dump. The source is
+ * parsed on first patch.
+ */
+public final class ConfigLayout {
+
+    private final String source;
+    private boolean parsed;
+    private boolean supplementary;
+    private Object tree;
+    private IdentityHashMap<Map<?, ?>, Section> sections;
+
+    private ConfigLayout(String source) {
+        this.source = source;
+    }
+
+    public static ConfigLayout of(String source) {
+        return new ConfigLayout(source);
+    }
+
+    public String source() {
+        return source;
+    }
+
+    /**
+     * The source with {@code data} applied, or {@code null} when the change cannot be expressed as edits.
+     */
+    String patch(Map<String, Object> data, Yaml yaml, LoaderOptions options) {
+        if (!parsed) parse(options);
+        if (!(tree instanceof Map<?, ?> root)) return null;
+
+        List<Edit> edits = new ArrayList<>();
+        if (!diff(root, data, yaml, edits)) return null;
+        if (edits.isEmpty()) return source;
+
+        edits.sort((a, b) -> Integer.compare(a.start, b.start));
+        StringBuilder out = new StringBuilder(source.length() + 64);
+        int pos = 0;
+        for (Edit e : edits) {
+            out.append(source, pos, e.start).append(e.text);
+            pos = e.end;
+        }
+        return out.append(source, pos, source.length()).toString();
+    }
+
+    private void parse(LoaderOptions options) {
+        parsed = true;
+        for (int i = 0; i < source.length() && !supplementary; i++) supplementary = Character.isSurrogate(source.charAt(i));
+        IdentityHashMap<Map<?, ?>, Section> found = new IdentityHashMap<>();
+        try {
+            tree = YamlTreeBuilder.build(new ParserImpl(new StreamReader(new StringReader(source)), options), found);
+            sections = found;
+        } catch (RuntimeException e) {
+            tree = null;
+        }
+    }
+
+    private boolean diff(Map<?, ?> old, Map<?, ?> now, Yaml yaml, List<Edit> edits) {
+        Section section = sections.get(old);
+        if (section == null || section.shared) return same(old, now);
+
+        // Null values are not dumped, so an empty "key:" left in place reads back the same
+        for (Map.Entry<?, ?> e : old.entrySet()) {
+            if (e.getValue() != null && !now.containsKey(e.getKey())) return false;
+        }
+
+        Map<Object, Object> added = null;
+        for (Map.Entry<?, ?> e : now.entrySet()) {
+            Object key = e.getKey();
+            Object value = e.getValue();
+            if (!old.containsKey(key)) {
+                if (added == null) added = new LinkedHashMap<>();
+                added.put(key, value);
+                continue;
+            }
+
+            Object previous = old.get(key);
+            if (previous instanceof Map<?, ?> before && value instanceof Map<?, ?> after) {
+                if (!diff(before, after, yaml, edits)) return false;
+                continue;
+            }
+            if (same(previous, value)) continue;
+
+            int[] span = section.spans.get(key);
+            if (span == null || !isScalar(previous) || !isScalar(value)) return false;
+            String text = renderScalar(value, yaml);
+            if (text == null) return false;
+            // An empty value ("key:") has an empty span right after the colon
+            edits.add(new Edit(charIndex(span[0]), charIndex(span[1]), span[0] == span[1] ? " " + text : text));
+        }
+
+        if (added != null) {
+            int end = charIndex(section.contentEnd);
+            int newline = source.indexOf('\n', end);
+            int at = newline < 0 ? source.length() : newline + 1;
+            String block = indent(yaml.dump(added), section.indent);
+            edits.add(new Edit(at, at, newline < 0 ? "\n" + block : block));
+        }
+        return true;
+    }
+
+    private static String renderScalar(Object value, Yaml yaml) {
+        String text = yaml.dump(value);
+        if (text.endsWith("\n")) text = text.substring(0, text.length() - 1);
+        return text.indexOf('\n') >= 0 ? null : text;
+    }
+
+    private static String indent(String block, int indent) {
+        if (indent == 0) return block;
+        String pad = " ".repeat(indent);
+        StringBuilder out = new StringBuilder(block.length() + 16 * indent);
+        for (String line : block.split("\n", -1)) {
+            if (!line.isEmpty()) out.append(pad).append(line);
+            out.append('\n');
+        }
+        out.setLength(out.length() - 1);
+        return out.toString();
+    }
+
+    /**
+     * Mark indices count code points; they only differ from char indices past a supplementary character.
+     */
+    private int charIndex(int codePoint) {
+        return supplementary ? source.offsetByCodePoints(0, codePoint) : codePoint;
+    }
+
+    private static boolean isScalar(Object v) {
+        return v == null || v instanceof String || v instanceof Number || v instanceof Boolean || v instanceof Character;
+    }
+
+    /**
+     * Equality that ignores the numeric type a value was read or encoded as.
+     */
+    private static boolean same(Object a, Object b) {
+        if (a instanceof Number x && b instanceof Number y) {
+            if (isIntegral(x) && isIntegral(y)) return toBig(x).equals(toBig(y));
+            return Double.compare(x.doubleValue(), y.doubleValue()) == 0;
+        }
+        if (a instanceof Map<?, ?> x && b instanceof Map<?, ?> y) {
+            if (x.size() != y.size()) return false;
+            for (Map.Entry<?, ?> e : x.entrySet()) {
+                if (!y.containsKey(e.getKey()) || !same(e.getValue(), y.get(e.getKey()))) return false;
+            }
+            return true;
+        }
+        if (a instanceof Collection<?> x && b instanceof Collection<?> y) {
+            if (x.size() != y.size()) return false;
+            Iterator<?> it = y.iterator();
+            for (Object o : x) {
+                if (!same(o, it.next())) return false;
+            }
+            return true;
+        }
+        return Objects.equals(a, b);
+    }
+
+    private static boolean isIntegral(Number n) {
+        return n instanceof Integer || n instanceof Long || n instanceof Short || n instanceof Byte || n instanceof BigInteger;
+    }
+
+    private static BigInteger toBig(Number n) {
+        return n instanceof BigInteger b ? b : BigInteger.valueOf(n.longValue());
+    }
+
+    /**
+     * Layout of one block mapping: the column of its keys, where its content ends and the span of each
+     * single-line scalar value, as code point offsets. A {@code shared} mapping sits under an anchor, so
+     * editing its text would also change every alias of it.
+     */
+    static final class Section {
+        boolean shared;
+        int indent = -1;
+        int contentEnd;
+        final Map<Object, int[]> spans = new HashMap<>();
+    }
+
+    private record Edit(int start, int end, String text) {
+    }
+}
@@ -0,0 +1,252 @@
+package fr.vortex.structrurate.loader;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary copy of a config's merged and migrated tree, stored next to the YAML as {@code <file>.snapshot}.
+ * <p>
+ * A snapshot is only used while the YAML still has the size, modification time and CRC32C it was taken
+ * from, and while the schema fingerprint (code version and defaults) is unchanged; anything else is a miss.
+ * The YAML is only read for its CRC32C once everything else matched. Enums are stored by name, as YAML
+ * would; writing is best effort, a tree holding values the format does not know is simply not snapshotted.
+ */
+public final class ConfigSnapshot {
+
+    private static final Logger log = Logger.getLogger(ConfigSnapshot.class.getName());
+
+    private static final int MAGIC = 0x56534E50; // VSNP
+    private static final int FORMAT = 1;
+
+    private static final byte NULL = 0, STRING = 1, INT = 2, LONG = 3, DOUBLE = 4, FALSE = 5, TRUE = 6,
+            MAP = 7, LIST = 8, FLOAT = 9, SHORT = 10, BYTE = 11, CHAR = 12, BIG_INTEGER = 13, BIG_DECIMAL = 14;
+
+    private ConfigSnapshot() {
+    }
+
+    /**
+     * Size and modification time of the YAML a snapshot was taken from; its CRC32C is checked separately.
+     */
+    public record Stamp(long size, long modified) {
+
+        /**
+         * Stamp of {@code file} as it is now, or {@code null} when it does not exist or cannot be read.
+         */
+        public static Stamp of(Path file) {
+            try {
+                BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                return new Stamp(attrs.size(), attrs.lastModifiedTime().toMillis());
+            } catch (NoSuchFileException e) {
+                return null;
+            } catch (IOException e) {
+                log.log(Level.FINE, "Failed to stamp " + file, e);
+                return null;
+            }
+        }
+    }
+
+    /**
+     * {@code synced} tells whether the YAML was written from this very tree, in which case loading it
+     * again would not add anything.
+     */
+    public record Data(List<String> header, Map<String, Object> tree, boolean synced) {
+    }
+
+    public static Path fileFor(Path config) {
+        return config.resolveSibling(config.getFileName().toString() + ".snapshot");
+    }
+
+    /**
+     * Fingerprint of what, besides the file, shapes the loaded tree.
+     */
+    public static long fingerprint(int codeVersion, Map<String, Object> defaults) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(codeVersion);
+            writeValue(out, defaults);
+        } catch (IOException | IllegalArgumentException e) {
+            return codeVersion;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(bytes.toByteArray());
+        return ((long) codeVersion << 32) ^ crc.getValue();
+    }
+
+    /**
+     * The snapshot of {@code config} if it matches {@code stamp} and {@code schema}, otherwise {@code null}.
+     */
+    public static Data read(Path config, Stamp stamp, long schema) {
+        Path file = fileFor(config);
+        try (InputStream raw = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(raw))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT) return null;
+            if (in.readLong() != stamp.size() || in.readLong() != stamp.modified()) return null;
+            long crc = in.readLong();
+            if (in.readLong() != schema || crc != crc(config)) return null;
+
+            boolean synced = in.readBoolean();
+            int lines = in.readInt();
+            List<String> header = new ArrayList<>(lines);
+            for (int i = 0; i < lines; i++) header.add(readString(in));
+
+            @SuppressWarnings("unchecked")
+            Map<String, Object> tree = (Map<String, Object>) readValue(in);
+            return new Data(header, tree, synced);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            log.log(Level.FINE, "Ignoring unreadable snapshot " + file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Snapshots {@code data} as the tree of {@code config}, unless the file no longer matches {@code stamp}.
+     */
+    public static void write(Path config, Stamp stamp, long schema, Data data) {
+        long crc = crc(config);
+        // Changed since it was stamped: the CRC may not be that of the content data came from
+        if (crc < 0 || !stamp.equals(Stamp.of(config))) return;
+
+        Path file = fileFor(config);
+        Path tmp = file.resolveSibling(file.getFileName().toString() + ".tmp");
+        try {
+            try (OutputStream raw = Files.newOutputStream(tmp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(raw))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT);
+                out.writeLong(stamp.size());
+                out.writeLong(stamp.modified());
+                out.writeLong(crc);
+                out.writeLong(schema);
+                out.writeBoolean(data.synced());
+                out.writeInt(data.header().size());
+                for (String line : data.header()) writeString(out, line);
+                writeValue(out, data.tree());
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | IllegalArgumentException e) {
+            log.log(Level.FINE, "Skipping snapshot of " + config, e);
+            try { Files.deleteIfExists(tmp); } catch (IOException ignored) {}
+        }
+    }
+
+    public static void delete(Path config) {
+        try {
+            Files.deleteIfExists(fileFor(config));
+        } catch (IOException e) {
+            log.log(Level.FINE, "Failed to delete snapshot of " + config, e);
+        }
+    }
+
+    /**
+     * CRC32C of the content of {@code file}, or {@code -1} when it cannot be read.
+     */
+    private static long crc(Path file) {
+        try {
+            CRC32C crc = new CRC32C();
+            crc.update(Files.readAllBytes(file));
+            return crc.getValue();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static void writeValue(DataOutputStream out, Object v) throws IOException {
+        switch (v) {
+            case null -> out.writeByte(NULL);
+            case String s -> { out.writeByte(STRING); writeString(out, s); }
+            case Integer i -> { out.writeByte(INT); out.writeInt(i); }
+            case Long l -> { out.writeByte(LONG); out.writeLong(l); }
+            case Double d -> { out.writeByte(DOUBLE); out.writeDouble(d); }
+            case Boolean b -> out.writeByte(b ? TRUE : FALSE);
+            case Float f -> { out.writeByte(FLOAT); out.writeFloat(f); }
+            case Short s -> { out.writeByte(SHORT); out.writeShort(s); }
+            case Byte b -> { out.writeByte(BYTE); out.writeByte(b); }
+            case Character c -> { out.writeByte(CHAR); out.writeChar(c); }
+            case BigInteger b -> { out.writeByte(BIG_INTEGER); writeString(out, b.toString()); }
+            case BigDecimal b -> { out.writeByte(BIG_DECIMAL); writeString(out, b.toString()); }
+            case Enum<?> e -> { out.writeByte(STRING); writeString(out, e.name()); }
+            case Map<?, ?> m -> {
+                out.writeByte(MAP);
+                out.writeInt(m.size());
+                for (Map.Entry<?, ?> e : m.entrySet()) {
+                    writeValue(out, e.getKey());
+                    writeValue(out, e.getValue());
+                }
+            }
+            case Collection<?> c -> {
+                out.writeByte(LIST);
+                out.writeInt(c.size());
+                for (Object o : c) writeValue(out, o);
+            }
+            default -> throw new IllegalArgumentException("Unsupported snapshot value " + v.getClass().getName());
+        }
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        return switch (tag) {
+            case NULL -> null;
+            case STRING -> readString(in);
+            case INT -> in.readInt();
+            case LONG -> in.readLong();
+            case DOUBLE -> in.readDouble();
+            case FALSE -> Boolean.FALSE;
+            case TRUE -> Boolean.TRUE;
+            case FLOAT -> in.readFloat();
+            case SHORT -> in.readShort();
+            case BYTE -> in.readByte();
+            case CHAR -> in.readChar();
+            case BIG_INTEGER -> new BigInteger(readString(in));
+            case BIG_DECIMAL -> new BigDecimal(readString(in));
+            case MAP -> {
+                int size = in.readInt();
+                Map<Object, Object> map = new LinkedHashMap<>(Math.max(16, size * 4 / 3 + 1));
+                for (int i = 0; i < size; i++) map.put(readValue(in), readValue(in));
+                yield map;
+            }
+            case LIST -> {
+                int size = in.readInt();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) list.add(readValue(in));
+                yield list;
+            }
+            default -> throw new IOException("Unknown snapshot tag " + tag);
+        };
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
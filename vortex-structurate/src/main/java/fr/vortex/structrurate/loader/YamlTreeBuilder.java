@@ -0,0 +1,243 @@
+package fr.vortex.structrurate.loader;
+
+import org.yaml.snakeyaml.events.AliasEvent;
+import org.yaml.snakeyaml.events.CollectionStartEvent;
+import org.yaml.snakeyaml.events.Event;
+import org.yaml.snakeyaml.events.NodeEvent;
+import org.yaml.snakeyaml.events.ScalarEvent;
+import org.yaml.snakeyaml.nodes.NodeId;
+import org.yaml.snakeyaml.nodes.Tag;
+import org.yaml.snakeyaml.parser.Parser;
+import org.yaml.snakeyaml.resolver.Resolver;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Builds plain {@code Map}/{@code List}/scalar trees straight from parser events, skipping SnakeYAML's node
+ * graph and general object construction.
+ * <p>
+ * Plain scalars are typed like {@code yaml.load} does (null, booleans, Integer/Long/BigInteger, Double),
+ * timestamps stay strings, anchors resolve to the same instance and {@code <<} merge keys are applied.
+ * Only the first document of the stream is read. When building a {@link ConfigLayout}, the source span of
+ * every block mapping and of its scalar values is recorded as well.
+ */
+final class YamlTreeBuilder {
+
+    private static final Resolver RESOLVER = new Resolver();
+
+    private final Parser parser;
+    private final Map<String, Object> anchors = new HashMap<>();
+    private final IdentityHashMap<Map<?, ?>, ConfigLayout.Section> sections;
+    private int lastEnd;
+    private int anchoredDepth;
+
+    private YamlTreeBuilder(Parser parser, IdentityHashMap<Map<?, ?>, ConfigLayout.Section> sections) {
+        this.parser = parser;
+        this.sections = sections;
+    }
+
+    /**
+     * The first document of {@code parser}, or {@code null} when the stream is empty.
+     */
+    static Object build(Parser parser) {
+        return build(parser, null);
+    }
+
+    /**
+     * Same as {@link #build(Parser)}, also filling {@code sections} with the layout of each block mapping.
+     * Mark indices are code point offsets in the parsed text.
+     */
+    static Object build(Parser parser, IdentityHashMap<Map<?, ?>, ConfigLayout.Section> sections) {
+        YamlTreeBuilder builder = new YamlTreeBuilder(parser, sections);
+        parser.getEvent(); // StreamStart
+        if (parser.checkEvent(Event.ID.StreamEnd)) return null;
+        parser.getEvent(); // DocumentStart
+        return builder.value(parser.getEvent());
+    }
+
+    private Object value(Event event) {
+        return switch (event.getEventId()) {
+            case Scalar -> anchor(event, scalar((ScalarEvent) event));
+            case SequenceStart -> sequence((CollectionStartEvent) event);
+            case MappingStart -> mapping((CollectionStartEvent) event);
+            case Alias -> {
+                lastEnd = event.getEndMark().getIndex();
+                String name = ((AliasEvent) event).getAnchor();
+                if (!anchors.containsKey(name)) throw new IllegalStateException("Unknown anchor " + name + " at " + event.getStartMark());
+                yield anchors.get(name);
+            }
+            default -> throw new IllegalStateException("Unexpected " + event + " at " + event.getStartMark());
+        };
+    }
+
+    private List<Object> sequence(CollectionStartEvent start) {
+        List<Object> list = new ArrayList<>();
+        anchor(start, list);
+        if (start.getAnchor() != null) anchoredDepth++;
+        while (!parser.checkEvent(Event.ID.SequenceEnd)) list.add(value(parser.getEvent()));
+        if (start.getAnchor() != null) anchoredDepth--;
+        collectionEnd(start, parser.getEvent());
+        return list;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Object, Object> mapping(CollectionStartEvent start) {
+        Map<Object, Object> map = new LinkedHashMap<>();
+        anchor(start, map);
+        if (start.getAnchor() != null) anchoredDepth++;
+        ConfigLayout.Section section = null;
+        if (sections != null && !start.isFlow()) {
+            section = new ConfigLayout.Section();
+            // Aliases and merge keys reuse this instance: its text stands for more than one place in the tree
+            section.shared = anchoredDepth > 0;
+            sections.put(map, section);
+        }
+        List<Map<Object, Object>> merges = null;
+        while (!parser.checkEvent(Event.ID.MappingEnd)) {
+            Event keyEvent = parser.getEvent();
+            if (section != null && section.indent < 0) section.indent = keyEvent.getStartMark().getColumn();
+            if (isMergeKey(keyEvent)) {
+                if (merges == null) merges = new ArrayList<>();
+                Object merged = value(parser.getEvent());
+                if (merged instanceof Map) {
+                    merges.add((Map<Object, Object>) merged);
+                } else if (merged instanceof List) {
+                    for (Object m : (List<Object>) merged) {
+                        if (m instanceof Map) merges.add((Map<Object, Object>) m);
+                    }
+                }
+                continue;
+            }
+            Object key = value(keyEvent);
+            Event valueEvent = parser.getEvent();
+            map.put(key, value(valueEvent));
+            if (section != null && valueEvent instanceof ScalarEvent scalar && scalar.getAnchor() == null
+                    && !scalar.isLiteral() && !scalar.isFolded()) {
+                section.spans.put(key, new int[]{valueEvent.getStartMark().getIndex(), valueEvent.getEndMark().getIndex()});
+            }
+        }
+        if (start.getAnchor() != null) anchoredDepth--;
+        collectionEnd(start, parser.getEvent());
+        if (section != null) section.contentEnd = lastEnd;
+
+        // Like SnakeYAML: merged keys come first, the first merged map wins over later ones and explicit keys
+        // win over all of them. Refilled in place so aliases keep pointing at this map
+        if (merges != null) {
+            Map<Object, Object> explicit = new LinkedHashMap<>(map);
+            map.clear();
+            for (Map<Object, Object> m : merges) {
+                for (Map.Entry<Object, Object> e : m.entrySet()) map.putIfAbsent(e.getKey(), e.getValue());
+            }
+            map.putAll(explicit);
+        }
+        return map;
+    }
+
+    private void collectionEnd(CollectionStartEvent start, Event end) {
+        // A block collection ends where the next token starts, possibly lines later; only flow ends are content
+        if (start.isFlow()) lastEnd = end.getEndMark().getIndex();
+    }
+
+    private static boolean isMergeKey(Event event) {
+        if (!(event instanceof ScalarEvent scalar) || !scalar.isPlain() || !"<<".equals(scalar.getValue())) return false;
+        return scalar.getTag() == null || Tag.MERGE.getValue().equals(scalar.getTag());
+    }
+
+    private Object anchor(Event event, Object value) {
+        if (event instanceof ScalarEvent) lastEnd = event.getEndMark().getIndex();
+        String anchor = ((NodeEvent) event).getAnchor();
+        if (anchor != null) anchors.put(anchor, value);
+        return value;
+    }
+
+    private static Object scalar(ScalarEvent event) {
+        String value = event.getValue();
+        String tag = event.getTag();
+        if (tag == null || "!".equals(tag)) {
+            if (!event.getImplicit().canOmitTagInPlainScalar()) return value;
+            return typed(RESOLVER.resolve(NodeId.scalar, value, true), value);
+        }
+        return typed(new Tag(tag), value);
+    }
+
+    private static Object typed(Tag tag, String value) {
+        if (Tag.NULL.equals(tag)) return null;
+        if (Tag.BOOL.equals(tag)) return bool(value);
+        if (Tag.INT.equals(tag)) return integer(value);
+        if (Tag.FLOAT.equals(tag)) return decimal(value);
+        return value;
+    }
+
+    private static Boolean bool(String value) {
+        return switch (value.toLowerCase(Locale.ROOT)) {
+            case "true", "yes", "on", "y" -> Boolean.TRUE;
+            default -> Boolean.FALSE;
+        };
+    }
+
+    private static Number integer(String raw) {
+        String value = raw.replace("_", "");
+        int sign = 1;
+        if (value.startsWith("-")) {
+            sign = -1;
+            value = value.substring(1);
+        } else if (value.startsWith("+")) {
+            value = value.substring(1);
+        }
+
+        int base = 10;
+        if (value.equals("0")) return 0;
+        if (value.startsWith("0b")) {
+            value = value.substring(2);
+            base = 2;
+        } else if (value.startsWith("0x")) {
+            value = value.substring(2);
+            base = 16;
+        } else if (value.startsWith("0")) {
+            value = value.substring(1);
+            base = 8;
+        } else if (value.indexOf(':') >= 0) {
+            long total = 0;
+            for (String part : value.split(":")) total = total * 60 + Long.parseLong(part);
+            return narrow(BigInteger.valueOf(sign * total));
+        }
+        if (base == 10 && value.length() <= 18) {
+            long n = sign * Long.parseLong(value);
+            return n == (int) n ? (Number) (int) n : (Number) n;
+        }
+        return narrow(new BigInteger(sign < 0 ? "-" + value : value, base));
+    }
+
+    private static Number narrow(BigInteger n) {
+        if (n.bitLength() < 32) return n.intValue();
+        if (n.bitLength() < 64) return n.longValue();
+        return n;
+    }
+
+    private static Double decimal(String raw) {
+        String value = raw.replace("_", "").toLowerCase(Locale.ROOT);
+        int sign = 1;
+        if (value.startsWith("-")) {
+            sign = -1;
+            value = value.substring(1);
+        } else if (value.startsWith("+")) {
+            value = value.substring(1);
+        }
+
+        if (value.equals(".inf")) return sign < 0 ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+        if (value.equals(".nan")) return Double.NaN;
+        if (value.indexOf(':') >= 0) {
+            double total = 0;
+            for (String part : value.split(":")) total = total * 60 + Double.parseDouble(part);
+            return sign * total;
+        }
+        return sign * Double.parseDouble(value);
+    }
+}
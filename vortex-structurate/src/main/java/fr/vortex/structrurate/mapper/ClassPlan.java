@@ -0,0 +1,66 @@
+package fr.vortex.structrurate.mapper;
+
+import java.lang.invoke.MethodHandle;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable mapping plan of one class, built once by {@link PojoMapper}: how to instantiate it and,
+ * for each mapped field, its key, accessors, codec and constraints.
+ */
+final class ClassPlan {
+
+    final Class<?> type;
+    final MethodHandle constructor;
+    final FieldPlan[] fields;
+    private final Map<String, FieldPlan> byKey = new HashMap<>();
+
+    ClassPlan(Class<?> type, MethodHandle constructor, FieldPlan[] fields) {
+        this.type = type;
+        this.constructor = constructor;
+        this.fields = fields;
+        for (FieldPlan f : fields) byKey.put(f.key(), f);
+    }
+
+    boolean has(String key) {
+        return byKey.containsKey(key);
+    }
+
+    Object instantiate() {
+        if (constructor == null) throw new RuntimeException("Failed to instantiate default of " + type + ": no no-arg constructor");
+        try {
+            return constructor.invokeExact();
+        } catch (Throwable t) {
+            throw new RuntimeException("Failed to instantiate default of " + type, t);
+        }
+    }
+
+    /**
+     * @param getter handle of type {@code (Object)Object}
+     * @param setter handle of type {@code (Object,Object)void}, {@code null} for fields that cannot be written
+     * @param rule   constraints checked while mapping, {@code null} when there are none
+     */
+    record FieldPlan(String key, String name, MethodHandle getter, MethodHandle setter, Codec codec, FieldRule rule) {
+
+        Object get(Object instance) {
+            try {
+                return getter.invokeExact(instance);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        }
+
+        void set(Object instance, Object value) {
+            if (setter == null) throw new IllegalStateException("field " + name + " is final");
+            try {
+                setter.invokeExact(instance, value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException(t);
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package fr.vortex.structrurate.mapper;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * Converter pre-selected for one declared type: {@code decode} turns a raw YAML value into the field value,
+ * {@code encode} turns a field value back into a YAML-friendly one. Decoders that map POJOs receive the
+ * {@link Validation} of the pass in progress.
+ *
+ * @param decodesAsIs whether {@code decode} always returns its argument
+ * @param encodesAsIs whether {@code encode} always returns its argument
+ * @param nested      whether decoding maps POJOs, directly or as collection elements, so the key path must be tracked
+ */
+record Codec(Decoder decoder, UnaryOperator<Object> encoder, boolean decodesAsIs, boolean encodesAsIs,
+             boolean nested) {
+
+    static final Codec IDENTITY = new Codec((raw, validation) -> raw, UnaryOperator.identity(), true, true, false);
+
+    static Codec of(UnaryOperator<Object> decoder, UnaryOperator<Object> encoder) {
+        return new Codec((raw, validation) -> decoder.apply(raw), encoder, false, false, false);
+    }
+
+    static Codec decoding(UnaryOperator<Object> decoder) {
+        return new Codec((raw, validation) -> decoder.apply(raw), UnaryOperator.identity(), false, true, false);
+    }
+
+    Object decode(Object raw, Validation validation) {
+        return raw == null ? null : decoder.decode(raw, validation);
+    }
+
+    Object encode(Object value) {
+        return value == null ? null : encoder.apply(value);
+    }
+
+    @FunctionalInterface
+    interface Decoder {
+        Object decode(Object raw, Validation validation);
+    }
+}
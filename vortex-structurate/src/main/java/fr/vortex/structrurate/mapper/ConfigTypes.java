@@ -0,0 +1,57 @@
+package fr.vortex.structrurate.mapper;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+
+/**
+ * Builds generic {@link Type}s without reflection, for generated codecs describing their field types.
+ */
+public final class ConfigTypes {
+
+    private ConfigTypes() {
+    }
+
+    public static ParameterizedType parameterized(Class<?> raw, Type... arguments) {
+        return new Parameterized(raw, arguments.clone());
+    }
+
+    private record Parameterized(Class<?> raw, Type[] arguments) implements ParameterizedType {
+
+        @Override
+        public Type[] getActualTypeArguments() {
+            return arguments.clone();
+        }
+
+        @Override
+        public Type getRawType() {
+            return raw;
+        }
+
+        @Override
+        public Type getOwnerType() {
+            return raw.getDeclaringClass();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ParameterizedType p && raw.equals(p.getRawType())
+                    && Arrays.equals(arguments, p.getActualTypeArguments());
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(arguments) ^ raw.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder out = new StringBuilder(raw.getName()).append('<');
+            for (int i = 0; i < arguments.length; i++) {
+                if (i > 0) out.append(", ");
+                out.append(arguments[i].getTypeName());
+            }
+            return out.append('>').toString();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package fr.vortex.structrurate.mapper;
+
+import java.util.List;
+
+/**
+ * Thrown when a config with {@code failOnValidationErrors} has violations, or one with {@code failOnUnknownFields}
+ * has keys no field maps to; lists all of them, not just the first.
+ */
+public class ConfigValidationException extends RuntimeException {
+
+    private final List<ConfigViolation> violations;
+
+    public ConfigValidationException(String source, List<ConfigViolation> violations) {
+        super(violations.size() + " invalid value(s) in " + source + ": " + violations);
+        this.violations = List.copyOf(violations);
+    }
+
+    public List<ConfigViolation> violations() {
+        return violations;
+    }
+}
@@ -0,0 +1,25 @@
+package fr.vortex.structrurate.mapper;
+
+/**
+ * A value rejected by {@code @NotNull}, {@code @Range} or {@code @Regex}, or a key no field maps to.
+ *
+ * @param path full dotted key path, list elements by index ({@code shops.2.price})
+ */
+public record ConfigViolation(String path, String message, Kind kind) {
+
+    public enum Kind {
+        /** A field value breaking one of its constraints. */
+        CONSTRAINT,
+        /** A key no field maps to. */
+        UNKNOWN_KEY
+    }
+
+    public boolean unknownKey() {
+        return kind == Kind.UNKNOWN_KEY;
+    }
+
+    @Override
+    public String toString() {
+        return path + ": " + message;
+    }
+}
@@ -0,0 +1,109 @@
+package fr.vortex.structrurate.mapper;
+
+import fr.vortex.structrurate.annotations.NotNull;
+import fr.vortex.structrurate.annotations.Range;
+import fr.vortex.structrurate.annotations.Regex;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collection;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Constraints of one field, resolved once from its annotations. {@code @Range} bounds numbers, and the
+ * length or size of strings, collections and maps; {@code @Regex} applies to strings.
+ * <p>
+ * A message is only built for a violation; checking a valid value allocates at most the matcher of a
+ * {@code @Regex}.
+ */
+final class FieldRule {
+
+    private final boolean notNull;
+    private final boolean ranged;
+    private final long min;
+    private final long max;
+    private final Pattern pattern;
+
+    private FieldRule(boolean notNull, boolean ranged, long min, long max, Pattern pattern) {
+        this.notNull = notNull;
+        this.ranged = ranged;
+        this.min = ranged ? min : Long.MIN_VALUE;
+        this.max = ranged ? max : Long.MAX_VALUE;
+        this.pattern = pattern;
+    }
+
+    /**
+     * The rule of {@code field}, or {@code null} when it has no constraint.
+     */
+    static FieldRule of(Field field) {
+        boolean notNull = field.isAnnotationPresent(NotNull.class);
+        Range range = field.getAnnotation(Range.class);
+        Regex regex = field.getAnnotation(Regex.class);
+        if (!notNull && range == null && regex == null) return null;
+        return new FieldRule(notNull, range != null, range != null ? range.min() : 0, range != null ? range.max() : 0,
+                regex != null ? Pattern.compile(regex.value()) : null);
+    }
+
+    /**
+     * The rule a generated codec recorded for a property, or {@code null} when it has no constraint.
+     */
+    static FieldRule of(GeneratedCodec.Constraints constraints) {
+        if (constraints == null) return null;
+        return new FieldRule(constraints.notNull(), constraints.ranged(), constraints.min(), constraints.max(),
+                constraints.regex() != null ? Pattern.compile(constraints.regex()) : null);
+    }
+
+    boolean notNull() {
+        return notNull;
+    }
+
+    /**
+     * Why {@code value} breaks this rule, or {@code null} if it does not.
+     */
+    String violation(Object value) {
+        if (value == null) return notNull ? "must not be null" : null;
+
+        if (ranged) {
+            String error = checkRange(value);
+            if (error != null) return error;
+        }
+        if (pattern != null && value instanceof CharSequence text && !pattern.matcher(text).matches()) {
+            return "must match " + pattern.pattern() + " (was '" + text + "')";
+        }
+        return null;
+    }
+
+    private String checkRange(Object value) {
+        switch (value) {
+            case Integer n -> { return bound(n, ""); }
+            case Long n -> { return bound(n, ""); }
+            case Short n -> { return bound(n, ""); }
+            case Byte n -> { return bound(n, ""); }
+            case Double n -> { return n >= min && n <= max ? null : outOfRange("", n); }
+            case Float n -> { return n >= min && n <= max ? null : outOfRange("", n); }
+            case BigInteger n -> {
+                return n.compareTo(BigInteger.valueOf(min)) >= 0 && n.compareTo(BigInteger.valueOf(max)) <= 0 ? null : outOfRange("", n);
+            }
+            case BigDecimal n -> {
+                return n.compareTo(BigDecimal.valueOf(min)) >= 0 && n.compareTo(BigDecimal.valueOf(max)) <= 0 ? null : outOfRange("", n);
+            }
+            case CharSequence s -> { return bound(s.length(), "length "); }
+            case Collection<?> c -> { return bound(c.size(), "size "); }
+            case Map<?, ?> m -> { return bound(m.size(), "size "); }
+            default -> { return null; }
+        }
+    }
+
+    private String bound(long n, String what) {
+        return n >= min && n <= max ? null : outOfRange(what, n);
+    }
+
+    private String outOfRange(String what, Object shown) {
+        String bounds = min == Long.MIN_VALUE ? "at most " + max
+                : max == Long.MAX_VALUE ? "at least " + min
+                : "between " + min + " and " + max;
+        return what + "must be " + bounds + " (was " + shown + ")";
+    }
+}
@@ -0,0 +1,46 @@
+package fr.vortex.structrurate.mapper;
+
+import fr.vortex.structrurate.adapters.TypeAdapter;
+
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Compile-time generated accessors of a config type, produced by the {@code vortex-structurate-processor}
+ * annotation processor and registered as a service. {@link PojoMapper} uses them instead of reflection
+ * when present.
+ * <p>
+ * Properties are indexed in mapping order; {@link #get} and {@link #set} take that index.
+ */
+public interface GeneratedCodec<T> {
+
+    Class<T> type();
+
+    T newInstance();
+
+    List<Property> properties();
+
+    Object get(T instance, int index);
+
+    void set(T instance, int index, Object value);
+
+    /**
+     * @param key         config key, after {@code @ConfigKey}
+     * @param name        field name
+     * @param type        declared field type, generic arguments included
+     * @param converter   {@code @ConfigConverter} instance, or {@code null}
+     * @param constraints {@code @NotNull}, {@code @Range} and {@code @Regex} of the field, or {@code null}
+     */
+    record Property(String key, String name, Type type, TypeAdapter<?> converter, Constraints constraints) {
+
+        public Property(String key, String name, Type type, TypeAdapter<?> converter) {
+            this(key, name, type, converter, null);
+        }
+    }
+
+    /**
+     * Field constraints as written in the source; {@code min} and {@code max} only apply when {@code ranged}.
+     */
+    record Constraints(boolean notNull, boolean ranged, long min, long max, String regex) {
+    }
+}
@@ -6,183 +6,409 @@ import fr.vortex.structrurate.annotations.ConfigIgnore;
 import fr.vortex.structrurate.annotations.ConfigKey;
 import fr.vortex.structrurate.node.ConfigNode;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
+/**
+ * Maps POJOs to and from {@link ConfigNode}s.
+ * <p>
+ * Each class is analysed once into a {@link ClassPlan}: method handle accessors, the adapter or converter
+ * of every field (generic element and value types included) and the no-arg constructor. Registering an
+ * adapter discards the plans so they are rebuilt with it.
+ * <p>
+ * {@code @NotNull}, {@code @Range} and {@code @Regex} are compiled into the plan as well and checked while
+ * mapping, with no extra walk over the object.
+ * <p>
+ * Classes with a {@link GeneratedCodec} registered as a service are accessed through it, without reflection.
+ */
 public class PojoMapper {
 
     private static final Logger log = Logger.getLogger(PojoMapper.class.getName());
 
-    private final Map<Class<?>, Map<String, Field>> fieldsCache = new ConcurrentHashMap<>();
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType GETTER = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER = MethodType.methodType(void.class, Object.class, Object.class);
+    // Written by VortexStructurate at the root of every file, never a field
+    private static final String VERSION_KEY = "_config_version";
+    private static final MethodHandle GENERATED_NEW;
+    private static final MethodHandle GENERATED_GET;
+    private static final MethodHandle GENERATED_SET;
+
+    static {
+        try {
+            GENERATED_NEW = LOOKUP.findVirtual(GeneratedCodec.class, "newInstance", MethodType.methodType(Object.class));
+            GENERATED_GET = LOOKUP.findVirtual(GeneratedCodec.class, "get", MethodType.methodType(Object.class, Object.class, int.class));
+            GENERATED_SET = LOOKUP.findVirtual(GeneratedCodec.class, "set", MethodType.methodType(void.class, Object.class, int.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static final ClassValue<GeneratedCodec<?>> GENERATED = new ClassValue<>() {
+        @Override
+        protected GeneratedCodec<?> computeValue(Class<?> type) {
+            return findGenerated(type);
+        }
+    };
+
+    private final Map<Class<?>, ClassPlan> plans = new ConcurrentHashMap<>();
     private final Map<Class<?>, TypeAdapter<?>> adapters = new ConcurrentHashMap<>();
 
     public <T> void registerAdapter(Class<T> type, TypeAdapter<T> adapter) {
         adapters.put(type, adapter);
+        plans.clear();
     }
 
+    @SuppressWarnings("unchecked")
     public <T> T instantiateDefaults(Class<T> clazz) {
-        try {
-            Constructor<T> ctor = clazz.getDeclaredConstructor();
-            ctor.setAccessible(true);
-            return ctor.newInstance();
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to instantiate default of " + clazz, e);
-        }
-    }
-
-    private Map<String, Field> fieldsFor(Class<?> clazz) {
-        return fieldsCache.computeIfAbsent(clazz, c -> {
-            Map<String, Field> m = new LinkedHashMap<>();
-            Class<?> cur = c;
-            while (cur != null && cur != Object.class) {
-                for (Field f : cur.getDeclaredFields()) {
-                    if (f.isAnnotationPresent(ConfigIgnore.class)) continue;
-                    f.setAccessible(true);
-                    String key = f.getName();
-                    ConfigKey ck = f.getAnnotation(ConfigKey.class);
-                    if (ck != null && !ck.value().isEmpty()) key = ck.value();
-                    if (!m.containsKey(key)) m.put(key, f);
-                }
-                cur = cur.getSuperclass();
-            }
-            return m;
-        });
+        return (T) planFor(clazz).instantiate();
     }
 
     public <T> T fromNode(Class<T> clazz, ConfigNode node) {
-        T instance = instantiateDefaults(clazz);
-        Map<String, Field> fields = fieldsFor(clazz);
-        for (Map.Entry<String, Field> e : fields.entrySet()) {
-            String key = e.getKey();
-            Field f = e.getValue();
-            Object raw = node.get(key);
+        return fromNode(clazz, node, false, null);
+    }
+
+    /**
+     * Maps {@code node}, validating field constraints and, with {@code checkUnknownKeys}, keys no field maps to.
+     * {@code onViolations} receives every violation with its full key path and is not called for a valid
+     * config; when {@code null}, violations are logged.
+     */
+    public <T> T fromNode(Class<T> clazz, ConfigNode node, boolean checkUnknownKeys, Consumer<List<ConfigViolation>> onViolations) {
+        Validation validation = new Validation(checkUnknownKeys);
+        T instance = map(clazz, node, validation);
+        List<ConfigViolation> violations = validation.violations();
+
+        if (violations != null) {
+            if (onViolations != null) {
+                onViolations.accept(violations);
+            } else {
+                for (ConfigViolation v : violations) log.warning("Invalid value in " + clazz.getSimpleName() + ": " + v);
+            }
+        }
+        return instance;
+    }
+
+    private <T> T map(Class<T> clazz, ConfigNode node, Validation validation) {
+        ClassPlan plan = planFor(clazz);
+        @SuppressWarnings("unchecked")
+        T instance = (T) plan.instantiate();
+        for (ClassPlan.FieldPlan f : plan.fields) {
+            Object raw = node.get(f.key());
+            FieldRule rule = f.rule();
+            if (raw == null) {
+                // The default stays in place, and must itself satisfy @NotNull
+                if (rule != null && rule.notNull() && f.get(instance) == null) validation.report(f.key(), "must not be null", ConfigViolation.Kind.CONSTRAINT);
+                continue;
+            }
             try {
                 Object value;
-                if (raw == null) {
-                    continue;
-                }
-                TypeAdapter<?> adapter = findAdapterForField(f);
-                if (adapter != null) {
-                    value = adapter.fromYaml(raw);
+                if (f.codec().nested()) {
+                    validation.push(f.key());
+                    try {
+                        value = f.codec().decode(raw, validation);
+                    } finally {
+                        validation.pop();
+                    }
                 } else {
-                    value = convertValue(raw, f.getType(), f.getGenericType());
+                    value = f.codec().decode(raw, validation);
                 }
                 f.set(instance, value);
+
+                if (rule != null) {
+                    String error = rule.violation(value);
+                    if (error != null) validation.report(f.key(), error, ConfigViolation.Kind.CONSTRAINT);
+                }
             } catch (Exception ex) {
-                log.warning("Failed to set field " + f.getName() + " on " + clazz.getSimpleName() + " from raw " + raw + ": " + ex.toString());
+                log.warning("Failed to set field " + f.name() + " on " + clazz.getSimpleName() + " from raw " + raw + ": " + ex.toString());
+            }
+        }
+
+        if (validation.checkUnknownKeys()) {
+            for (String key : node.map().keySet()) {
+                if (plan.has(key) || (validation.atRoot() && key.equals(VERSION_KEY))) continue;
+                validation.report(key, "unknown key", ConfigViolation.Kind.UNKNOWN_KEY);
             }
         }
         return instance;
     }
 
-    @SuppressWarnings("unchecked")
     public ConfigNode toNode(Object instance) {
         ConfigNode root = new ConfigNode();
-        Map<String, Field> fields = fieldsFor(instance.getClass());
-        for (Map.Entry<String, Field> e : fields.entrySet()) {
-            String key = e.getKey();
-            Field f = e.getValue();
+        for (ClassPlan.FieldPlan f : planFor(instance.getClass()).fields) {
             try {
                 Object val = f.get(instance);
                 if (val == null) continue;
-                TypeAdapter adapter = findAdapterForField(f);
-                Object out;
-                if (adapter != null) {
-                    out = adapter.toYaml(val);
-                } else {
-                    out = serializeValue(val, f.getType(), f.getGenericType());
-                }
-                root.set(key, out);
+                root.set(f.key(), f.codec().encode(val));
             } catch (Exception ex) {
-                log.warning("Failed to read field " + f.getName() + " on " + instance.getClass().getSimpleName() + ": " + ex.toString());
+                log.warning("Failed to read field " + f.name() + " on " + instance.getClass().getSimpleName() + ": " + ex.toString());
             }
         }
         return root;
     }
 
-    private TypeAdapter<?> findAdapterForField(Field f) {
-        ConfigConverter conv = f.getAnnotation(ConfigConverter.class);
-        if (conv != null) {
-            try {
-                Object o = conv.value().getDeclaredConstructor().newInstance();
-                if (o instanceof TypeAdapter) return (TypeAdapter<?>) o;
-            } catch (Exception ignored) { }
+    ClassPlan planFor(Class<?> clazz) {
+        ClassPlan plan = plans.get(clazz);
+        if (plan == null) {
+            plan = buildPlan(clazz);
+            ClassPlan raced = plans.putIfAbsent(clazz, plan);
+            if (raced != null) plan = raced;
         }
-        return adapters.get(f.getType());
+        return plan;
     }
 
-    @SuppressWarnings("unchecked")
-    private Object convertValue(Object raw, Class<?> target, Type genericType) {
-        if (raw == null || target.isInstance(raw)) return raw;
+    private ClassPlan buildPlan(Class<?> clazz) {
+        GeneratedCodec<?> generated = GENERATED.get(clazz);
+        if (generated != null) return generatedPlan(clazz, generated);
 
-        if (target == String.class) return raw.toString();
+        MethodHandle constructor = null;
+        try {
+            Constructor<?> ctor = clazz.getDeclaredConstructor();
+            ctor.setAccessible(true);
+            constructor = LOOKUP.unreflectConstructor(ctor).asType(MethodType.methodType(Object.class));
+        } catch (ReflectiveOperationException | RuntimeException ignored) {
+        }
 
-        if (raw instanceof Number num) {
-            if (target == int.class || target == Integer.class) return num.intValue();
-            if (target == long.class || target == Long.class) return num.longValue();
-            if (target == double.class || target == Double.class) return num.doubleValue();
-            if (target == float.class || target == Float.class) return num.floatValue();
+        Map<String, ClassPlan.FieldPlan> fields = new LinkedHashMap<>();
+        Class<?> cur = clazz;
+        while (cur != null && cur != Object.class) {
+            for (Field f : cur.getDeclaredFields()) {
+                if (f.isAnnotationPresent(ConfigIgnore.class) || Modifier.isStatic(f.getModifiers()) || f.isSynthetic()) continue;
+                String key = f.getName();
+                ConfigKey ck = f.getAnnotation(ConfigKey.class);
+                if (ck != null && !ck.value().isEmpty()) key = ck.value();
+                if (fields.containsKey(key)) continue;
+
+                try {
+                    fields.put(key, fieldPlan(key, f));
+                } catch (ReflectiveOperationException | RuntimeException ex) {
+                    log.warning("Failed to map field " + f.getName() + " on " + clazz.getSimpleName() + ": " + ex);
+                }
+            }
+            cur = cur.getSuperclass();
         }
+        return new ClassPlan(clazz, constructor, fields.values().toArray(new ClassPlan.FieldPlan[0]));
+    }
 
-        if (target == boolean.class || target == Boolean.class) {
-            return raw instanceof Boolean ? raw : Boolean.parseBoolean(raw.toString());
+    private ClassPlan generatedPlan(Class<?> clazz, GeneratedCodec<?> generated) {
+        MethodHandle get = GENERATED_GET.bindTo(generated);
+        MethodHandle set = GENERATED_SET.bindTo(generated);
+        List<GeneratedCodec.Property> properties = generated.properties();
+        ClassPlan.FieldPlan[] fields = new ClassPlan.FieldPlan[properties.size()];
+        for (int i = 0; i < fields.length; i++) {
+            GeneratedCodec.Property property = properties.get(i);
+            Codec codec = property.converter() != null ? adapterCodec(property.converter()) : codecFor(property.type());
+            fields[i] = new ClassPlan.FieldPlan(property.key(), property.name(),
+                    MethodHandles.insertArguments(get, 1, i), MethodHandles.insertArguments(set, 1, i), codec,
+                    FieldRule.of(property.constraints()));
         }
+        return new ClassPlan(clazz, GENERATED_NEW.bindTo(generated), fields);
+    }
 
-        if (target.isEnum()) {
-            String s = raw.toString();
-            for (Object c : target.getEnumConstants()) {
-                if (((Enum<?>) c).name().equalsIgnoreCase(s)) return c;
+    /**
+     * Looks for the codec the processor generated for {@code type}, named after it with a {@code _VortexCodec} suffix.
+     */
+    private static GeneratedCodec<?> findGenerated(Class<?> type) {
+        ClassLoader loader = type.getClassLoader();
+        if (loader == null || type.isPrimitive() || type.isArray()) return null;
+
+        String packageName = type.getPackageName();
+        String simple = packageName.isEmpty() ? type.getName() : type.getName().substring(packageName.length() + 1);
+        String codecName = (packageName.isEmpty() ? "" : packageName + ".") + simple.replace('$', '_') + "_VortexCodec";
+        try {
+            for (ServiceLoader.Provider<GeneratedCodec> provider : ServiceLoader.load(GeneratedCodec.class, loader).stream().toList()) {
+                if (!provider.type().getName().equals(codecName)) continue;
+                GeneratedCodec<?> codec = provider.get();
+                if (codec.type() == type) return codec;
             }
-            return Enum.valueOf((Class<Enum>) target, s);
+        } catch (ServiceConfigurationError e) {
+            log.log(Level.WARNING, "Failed to load generated codec of " + type.getName(), e);
         }
+        return null;
+    }
 
-        if (Collection.class.isAssignableFrom(target) && raw instanceof Collection) {
-            Class<?> elementType = Object.class;
-            if (genericType instanceof ParameterizedType) {
-                Type t = ((ParameterizedType) genericType).getActualTypeArguments()[0];
-                if (t instanceof Class) elementType = (Class<?>) t;
-            }
-            List<Object> out = new ArrayList<>();
-            for (Object r : (Collection<?>) raw) {
-                out.add(convertValue(r, elementType, elementType));
-            }
-            return out;
+    private ClassPlan.FieldPlan fieldPlan(String key, Field f) throws ReflectiveOperationException {
+        f.setAccessible(true);
+        MethodHandle getter = LOOKUP.unreflectGetter(f).asType(GETTER);
+        MethodHandle setter = null;
+        try {
+            setter = LOOKUP.unreflectSetter(f).asType(SETTER);
+        } catch (IllegalAccessException ignored) {
+        }
+
+        Codec codec;
+        TypeAdapter<?> converter = converterFor(f);
+        if (converter != null) codec = adapterCodec(converter);
+        else codec = codecFor(f.getGenericType());
+        return new ClassPlan.FieldPlan(key, f.getName(), getter, setter, codec, FieldRule.of(f));
+    }
+
+    private static TypeAdapter<?> converterFor(Field f) {
+        ConfigConverter conv = f.getAnnotation(ConfigConverter.class);
+        if (conv == null) return null;
+        try {
+            Object o = conv.value().getDeclaredConstructor().newInstance();
+            if (o instanceof TypeAdapter<?> adapter) return adapter;
+        } catch (Exception ignored) { }
+        return null;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Codec adapterCodec(TypeAdapter adapter) {
+        return Codec.of(adapter::fromYaml, adapter::toYaml);
+    }
+
+    /**
+     * Selects the converter of a declared type once, recursing into collection elements and map keys and values.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Codec codecFor(Type type) {
+        Class<?> target = rawClass(type);
+
+        TypeAdapter<?> adapter = adapters.get(target);
+        if (adapter != null) return adapterCodec(adapter);
+
+        if (target == Object.class) return dynamicCodec();
+        if (target == String.class) return Codec.decoding(raw -> raw instanceof String ? raw : raw.toString());
+
+        if (target == int.class || target == Integer.class) return numberCodec(Integer.class, Number::intValue);
+        if (target == long.class || target == Long.class) return numberCodec(Long.class, Number::longValue);
+        if (target == double.class || target == Double.class) return numberCodec(Double.class, Number::doubleValue);
+        if (target == float.class || target == Float.class) return numberCodec(Float.class, Number::floatValue);
+        if (target == short.class || target == Short.class) return numberCodec(Short.class, Number::shortValue);
+        if (target == byte.class || target == Byte.class) return numberCodec(Byte.class, Number::byteValue);
+        if (target == boolean.class || target == Boolean.class) {
+            return Codec.decoding(raw -> raw instanceof Boolean ? raw : Boolean.parseBoolean(raw.toString()));
         }
 
-        if (Map.class.isAssignableFrom(target) && raw instanceof Map) {
-            return raw;
+        if (target.isEnum()) {
+            Map<String, Object> byName = new HashMap<>();
+            for (Object c : target.getEnumConstants()) byName.putIfAbsent(((Enum<?>) c).name().toLowerCase(Locale.ROOT), c);
+            return Codec.of(raw -> {
+                if (target.isInstance(raw)) return raw;
+                Object c = byName.get(raw.toString().toLowerCase(Locale.ROOT));
+                return c != null ? c : Enum.valueOf((Class<Enum>) target, raw.toString());
+            }, value -> ((Enum<?>) value).name());
         }
 
-        if (target == UUID.class) return UUID.fromString(raw.toString());
-        if (target == Instant.class) return Instant.parse(raw.toString());
-        if (target == Duration.class) return Duration.parse(raw.toString());
+        if (target == UUID.class) return Codec.of(raw -> raw instanceof UUID ? raw : UUID.fromString(raw.toString()), Object::toString);
+        if (target == Instant.class) return Codec.of(raw -> raw instanceof Instant ? raw : Instant.parse(raw.toString()), Object::toString);
+        if (target == Duration.class) return Codec.of(raw -> raw instanceof Duration ? raw : Duration.parse(raw.toString()), Object::toString);
+
+        if (Collection.class.isAssignableFrom(target)) return collectionCodec(target, codecFor(typeArgument(type, 0)));
+        if (Map.class.isAssignableFrom(target)) return mapCodec(codecFor(typeArgument(type, 0)), codecFor(typeArgument(type, 1)));
 
-        if (raw instanceof Map) {
-            ConfigNode node = new ConfigNode((Map<String, Object>) raw);
-            return fromNode(target, node);
+        if (target.isInterface() || Modifier.isAbstract(target.getModifiers()) || target.isArray() || target.isPrimitive()) {
+            return dynamicCodec();
         }
-        return raw;
+        return pojoCodec(target);
     }
 
-    @SuppressWarnings({"unchecked", "rawtypes"})
-    private Object serializeValue(Object val, Class<?> type, Type genericType) {
-        if (val == null) return null;
-        if (val instanceof Number || val instanceof Boolean || val instanceof String || val instanceof Enum) return val;
+    private static Codec numberCodec(Class<?> boxed, Function<Number, Object> narrow) {
+        return Codec.decoding(raw -> boxed.isInstance(raw) || !(raw instanceof Number n) ? raw : narrow.apply(n));
+    }
 
+    private static Codec collectionCodec(Class<?> target, Codec element) {
+        Supplier<Collection<Object>> factory = target.isAssignableFrom(ArrayList.class) ? ArrayList::new
+                : target.isAssignableFrom(LinkedHashSet.class) ? LinkedHashSet::new
+                : target.isAssignableFrom(TreeSet.class) ? TreeSet::new
+                : ArrayList::new;
+        return new Codec((raw, validation) -> {
+            if (!(raw instanceof Collection<?> items)) return raw;
+            if (element.decodesAsIs() && target.isInstance(raw)) return raw;
+            Collection<Object> out = factory.get();
+            if (element.nested()) {
+                int index = 0;
+                for (Object item : items) {
+                    validation.push(index++);
+                    try {
+                        out.add(element.decode(item, validation));
+                    } finally {
+                        validation.pop();
+                    }
+                }
+            } else {
+                for (Object item : items) out.add(element.decode(item, validation));
+            }
+            return out;
+        }, val -> {
+            Collection<?> items = (Collection<?>) val;
+            List<Object> out = new ArrayList<>(items.size());
+            for (Object item : items) out.add(element.encode(item));
+            return out;
+        }, false, false, element.nested());
+    }
+
+    private static Codec mapCodec(Codec key, Codec value) {
+        return new Codec((raw, validation) -> {
+            if (!(raw instanceof Map<?, ?> entries)) return raw;
+            if (key.decodesAsIs() && value.decodesAsIs()) return raw;
+            Map<Object, Object> out = new LinkedHashMap<>();
+            if (value.nested()) {
+                for (Map.Entry<?, ?> e : entries.entrySet()) {
+                    validation.push(String.valueOf(e.getKey()));
+                    try {
+                        out.put(key.decode(e.getKey(), validation), value.decode(e.getValue(), validation));
+                    } finally {
+                        validation.pop();
+                    }
+                }
+            } else {
+                for (Map.Entry<?, ?> e : entries.entrySet()) out.put(key.decode(e.getKey(), validation), value.decode(e.getValue(), validation));
+            }
+            return out;
+        }, val -> {
+            if (key.encodesAsIs() && value.encodesAsIs()) return val;
+            Map<Object, Object> out = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> e : ((Map<?, ?>) val).entrySet()) out.put(key.encode(e.getKey()), value.encode(e.getValue()));
+            return out;
+        }, false, false, value.nested());
+    }
+
+    /**
+     * Nested POJO: the plan is looked up when used, so self-referencing types and plans discarded by
+     * {@link #registerAdapter(Class, TypeAdapter)} are handled.
+     */
+    @SuppressWarnings("unchecked")
+    private Codec pojoCodec(Class<?> target) {
+        return new Codec((raw, validation) -> {
+            if (target.isInstance(raw) || !(raw instanceof Map)) return raw;
+            return map(target, new ConfigNode((Map<String, Object>) raw), validation);
+        }, val -> toNode(val).asMap(), false, false, true);
+    }
+
+    /**
+     * Declared type too loose to pre-select anything: values are kept as read and encoded by their runtime type.
+     */
+    private Codec dynamicCodec() {
+        return new Codec((raw, validation) -> raw, this::encodeDynamic, true, false, false);
+    }
+
+    private Object encodeDynamic(Object val) {
+        if (val instanceof Number || val instanceof Boolean || val instanceof String || val instanceof Enum) return val;
         if (val instanceof UUID || val instanceof Instant || val instanceof Duration) return val.toString();
 
-        if (val instanceof Collection coll) {
-            return coll.stream()
-                    .map(o -> serializeValue(o, o.getClass(), o.getClass()))
-                    .collect(Collectors.toList());
+        if (val instanceof Collection<?> coll) {
+            List<Object> out = new ArrayList<>(coll.size());
+            for (Object o : coll) out.add(o == null ? null : encodeDynamic(o));
+            return out;
         }
 
         if (val instanceof Map) {
@@ -191,4 +417,18 @@ public class PojoMapper {
 
         return toNode(val).asMap();
     }
+
+    private static Type typeArgument(Type type, int index) {
+        if (type instanceof ParameterizedType p && p.getActualTypeArguments().length > index) return p.getActualTypeArguments()[index];
+        return Object.class;
+    }
+
+    private static Class<?> rawClass(Type type) {
+        if (type instanceof Class<?> c) return c;
+        if (type instanceof ParameterizedType p) return rawClass(p.getRawType());
+        if (type instanceof WildcardType w) return rawClass(w.getUpperBounds()[0]);
+        if (type instanceof TypeVariable<?> v) return rawClass(v.getBounds()[0]);
+        if (type instanceof GenericArrayType) return Object[].class;
+        return Object.class;
+    }
 }
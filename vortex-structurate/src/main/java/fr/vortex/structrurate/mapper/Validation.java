@@ -0,0 +1,76 @@
+package fr.vortex.structrurate.mapper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * State of one mapping pass, handed down to nested decoders: the key path down to the value being decoded,
+ * kept in arrays allocated on the first nested value, and the violations found so far, allocated on the first one.
+ */
+final class Validation {
+
+    private final boolean checkUnknownKeys;
+
+    private String[] keys;
+    private int[] indices;
+    private int depth;
+
+    private List<ConfigViolation> violations;
+
+    Validation(boolean checkUnknownKeys) {
+        this.checkUnknownKeys = checkUnknownKeys;
+    }
+
+    /**
+     * The violations reported so far, {@code null} if there were none.
+     */
+    List<ConfigViolation> violations() {
+        return violations;
+    }
+
+    boolean checkUnknownKeys() {
+        return checkUnknownKeys;
+    }
+
+    boolean atRoot() {
+        return depth == 0;
+    }
+
+    void push(String key) {
+        grow();
+        keys[depth] = key;
+        indices[depth++] = -1;
+    }
+
+    void push(int index) {
+        grow();
+        keys[depth] = null;
+        indices[depth++] = index;
+    }
+
+    void pop() {
+        keys[--depth] = null;
+    }
+
+    void report(String key, String message, ConfigViolation.Kind kind) {
+        StringBuilder path = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            if (keys[i] != null) path.append(keys[i]);
+            else path.append(indices[i]);
+            path.append('.');
+        }
+        if (violations == null) violations = new ArrayList<>();
+        violations.add(new ConfigViolation(path.append(key).toString(), message, kind));
+    }
+
+    private void grow() {
+        if (keys == null) {
+            keys = new String[8];
+            indices = new int[8];
+        } else if (depth == keys.length) {
+            keys = Arrays.copyOf(keys, depth * 2);
+            indices = Arrays.copyOf(indices, depth * 2);
+        }
+    }
+}
@@ -50,4 +50,11 @@ public record ConfigNode(Map<String, Object> map) {
     public Map<String, Object> asMap() {
         return Collections.unmodifiableMap(map);
     }
+
+    /**
+     * An immutable copy for read-heavy access, see {@link FrozenConfigNode}.
+     */
+    public FrozenConfigNode freeze() {
+        return FrozenConfigNode.of(map);
+    }
 }
@@ -0,0 +1,61 @@
+package fr.vortex.structrurate.node;
+
+import java.util.Arrays;
+
+/**
+ * A dotted key path ({@code "shop.items.sword"}) split and interned once, so resolving it against a
+ * {@link FrozenConfigNode} allocates nothing. Keep instances in constants for hot lookups.
+ */
+public final class ConfigPath {
+
+    private final String[] segments;
+    private final String text;
+
+    private ConfigPath(String[] segments, String text) {
+        this.segments = segments;
+        this.text = text;
+    }
+
+    public static ConfigPath of(String path) {
+        if (path.isEmpty()) throw new IllegalArgumentException("Empty config path");
+        String[] segments = path.split("\\.", -1);
+        for (int i = 0; i < segments.length; i++) {
+            if (segments[i].isEmpty()) throw new IllegalArgumentException("Empty segment in config path: " + path);
+            segments[i] = segments[i].intern();
+        }
+        return new ConfigPath(segments, path);
+    }
+
+    public ConfigPath child(String key) {
+        String[] next = Arrays.copyOf(segments, segments.length + 1);
+        next[segments.length] = key.intern();
+        return new ConfigPath(next, text + "." + key);
+    }
+
+    public int depth() {
+        return segments.length;
+    }
+
+    public String segment(int index) {
+        return segments[index];
+    }
+
+    String last() {
+        return segments[segments.length - 1];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof ConfigPath other && text.equals(other.text);
+    }
+
+    @Override
+    public int hashCode() {
+        return text.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
@@ -0,0 +1,291 @@
+package fr.vortex.structrurate.node;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, read-optimized form of a config tree.
+ * <p>
+ * Keys are interned into a compact array (hash-indexed past a few entries), int/long/double/boolean values
+ * live unboxed in a {@code long[]}, and child sections are stored frozen, so {@link #node(String)} and
+ * {@link ConfigPath} lookups allocate nothing. Typed getters return the default when the value is missing
+ * or of another type; they never box.
+ */
+public final class FrozenConfigNode {
+
+    private static final byte NULL = 0, BOOLEAN = 1, INT = 2, LONG = 3, DOUBLE = 4, NODE = 5, OBJECT = 6;
+    private static final int LINEAR_SCAN = 8;
+
+    private static final FrozenConfigNode EMPTY = new FrozenConfigNode(new String[0], new byte[0], new long[0], new Object[0]);
+
+    private final String[] keys;
+    private final byte[] kinds;
+    private final long[] values;
+    private final Object[] refs;
+    private final int[] table;
+
+    private FrozenConfigNode(String[] keys, byte[] kinds, long[] values, Object[] refs) {
+        this.keys = keys;
+        this.kinds = kinds;
+        this.values = values;
+        this.refs = refs;
+        this.table = keys.length > LINEAR_SCAN ? index(keys) : null;
+    }
+
+    public static FrozenConfigNode empty() {
+        return EMPTY;
+    }
+
+    public static FrozenConfigNode of(Map<?, ?> map) {
+        int size = map.size();
+        if (size == 0) return EMPTY;
+
+        String[] keys = new String[size];
+        byte[] kinds = new byte[size];
+        long[] values = new long[size];
+        Object[] refs = new Object[size];
+        int i = 0;
+        for (Map.Entry<?, ?> e : map.entrySet()) {
+            keys[i] = String.valueOf(e.getKey()).intern();
+            Object v = e.getValue();
+            switch (v) {
+                case null -> kinds[i] = NULL;
+                case Boolean b -> { kinds[i] = BOOLEAN; values[i] = b ? 1 : 0; }
+                case Integer n -> { kinds[i] = INT; values[i] = n; }
+                case Short n -> { kinds[i] = INT; values[i] = n; }
+                case Byte n -> { kinds[i] = INT; values[i] = n; }
+                case Long n -> { kinds[i] = LONG; values[i] = n; }
+                case Double n -> { kinds[i] = DOUBLE; values[i] = Double.doubleToRawLongBits(n); }
+                case Float n -> { kinds[i] = DOUBLE; values[i] = Double.doubleToRawLongBits(n); }
+                case Map<?, ?> m -> { kinds[i] = NODE; refs[i] = of(m); }
+                default -> { kinds[i] = OBJECT; refs[i] = freezeValue(v); }
+            }
+            i++;
+        }
+        return new FrozenConfigNode(keys, kinds, values, refs);
+    }
+
+    private static Object freezeValue(Object v) {
+        if (v instanceof Map<?, ?> m) return of(m);
+        if (v instanceof Collection<?> c) {
+            List<Object> out = new ArrayList<>(c.size());
+            for (Object o : c) out.add(freezeValue(o));
+            return Collections.unmodifiableList(out);
+        }
+        return v;
+    }
+
+    private static int[] index(String[] keys) {
+        int[] table = new int[Integer.highestOneBit(keys.length * 2 - 1) << 1];
+        int mask = table.length - 1;
+        for (int i = 0; i < keys.length; i++) {
+            int h = keys[i].hashCode() & mask;
+            while (table[h] != 0) h = (h + 1) & mask;
+            table[h] = i + 1;
+        }
+        return table;
+    }
+
+    private int slot(String key) {
+        if (table == null) {
+            for (int i = 0; i < keys.length; i++) {
+                String k = keys[i];
+                if (k == key || k.equals(key)) return i;
+            }
+            return -1;
+        }
+        int mask = table.length - 1;
+        for (int h = key.hashCode() & mask; ; h = (h + 1) & mask) {
+            int s = table[h] - 1;
+            if (s < 0) return -1;
+            String k = keys[s];
+            if (k == key || k.equals(key)) return s;
+        }
+    }
+
+    /**
+     * The section holding the last segment of {@code path}, or {@code null} if an intermediate one is missing.
+     */
+    private FrozenConfigNode parentOf(ConfigPath path) {
+        FrozenConfigNode node = this;
+        for (int i = 0, last = path.depth() - 1; i < last; i++) {
+            int s = node.slot(path.segment(i));
+            if (s < 0 || node.kinds[s] != NODE) return null;
+            node = (FrozenConfigNode) node.refs[s];
+        }
+        return node;
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    public List<String> keys() {
+        return Collections.unmodifiableList(Arrays.asList(keys));
+    }
+
+    public boolean has(String key) {
+        return slot(key) >= 0;
+    }
+
+    public boolean has(ConfigPath path) {
+        FrozenConfigNode parent = parentOf(path);
+        return parent != null && parent.slot(path.last()) >= 0;
+    }
+
+    /**
+     * The value of {@code key}, boxed if primitive; sections come back as {@link FrozenConfigNode}.
+     */
+    public Object get(String key) {
+        int s = slot(key);
+        return s < 0 ? null : box(s);
+    }
+
+    public Object get(ConfigPath path) {
+        FrozenConfigNode parent = parentOf(path);
+        return parent == null ? null : parent.get(path.last());
+    }
+
+    /**
+     * The child section {@code key}, or {@code null} if absent or not a section.
+     */
+    public FrozenConfigNode node(String key) {
+        int s = slot(key);
+        return s >= 0 && kinds[s] == NODE ? (FrozenConfigNode) refs[s] : null;
+    }
+
+    public FrozenConfigNode node(ConfigPath path) {
+        FrozenConfigNode parent = parentOf(path);
+        return parent == null ? null : parent.node(path.last());
+    }
+
+    public int getInt(String key, int def) {
+        return intAt(slot(key), def);
+    }
+
+    public int getInt(ConfigPath path, int def) {
+        FrozenConfigNode parent = parentOf(path);
+        return parent == null ? def : parent.intAt(parent.slot(path.last()), def);
+    }
+
+    public long getLong(String key, long def) {
+        return longAt(slot(key), def);
+    }
+
+    public long getLong(ConfigPath path, long def) {
+        FrozenConfigNode parent = parentOf(path);
+        return parent == null ? def : parent.longAt(parent.slot(path.last()), def);
+    }
+
+    public double getDouble(String key, double def) {
+        return doubleAt(slot(key), def);
+    }
+
+    public double getDouble(ConfigPath path, double def) {
+        FrozenConfigNode parent = parentOf(path);
+        return parent == null ? def : parent.doubleAt(parent.slot(path.last()), def);
+    }
+
+    public boolean getBoolean(String key, boolean def) {
+        return booleanAt(slot(key), def);
+    }
+
+    public boolean getBoolean(ConfigPath path, boolean def) {
+        FrozenConfigNode parent = parentOf(path);
+        return parent == null ? def : parent.booleanAt(parent.slot(path.last()), def);
+    }
+
+    public String getString(String key, String def) {
+        return stringAt(slot(key), def);
+    }
+
+    public String getString(ConfigPath path, String def) {
+        FrozenConfigNode parent = parentOf(path);
+        return parent == null ? def : parent.stringAt(parent.slot(path.last()), def);
+    }
+
+    private int intAt(int s, int def) {
+        if (s < 0) return def;
+        return switch (kinds[s]) {
+            case INT -> (int) values[s];
+            case LONG -> values[s] == (int) values[s] ? (int) values[s] : def;
+            default -> def;
+        };
+    }
+
+    private long longAt(int s, long def) {
+        if (s < 0) return def;
+        return kinds[s] == INT || kinds[s] == LONG ? values[s] : def;
+    }
+
+    private double doubleAt(int s, double def) {
+        if (s < 0) return def;
+        return switch (kinds[s]) {
+            case DOUBLE -> Double.longBitsToDouble(values[s]);
+            case INT, LONG -> values[s];
+            default -> def;
+        };
+    }
+
+    private boolean booleanAt(int s, boolean def) {
+        return s >= 0 && kinds[s] == BOOLEAN ? values[s] != 0 : def;
+    }
+
+    private String stringAt(int s, String def) {
+        return s >= 0 && kinds[s] == OBJECT && refs[s] instanceof String str ? str : def;
+    }
+
+    private Object box(int s) {
+        return switch (kinds[s]) {
+            case BOOLEAN -> values[s] != 0;
+            case INT -> (int) values[s];
+            case LONG -> values[s];
+            case DOUBLE -> Double.longBitsToDouble(values[s]);
+            case NULL -> null;
+            default -> refs[s];
+        };
+    }
+
+    /**
+     * A mutable copy of this tree, as plain maps and lists.
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> out = new LinkedHashMap<>(Math.max(16, keys.length * 4 / 3 + 1));
+        for (int i = 0; i < keys.length; i++) out.put(keys[i], thaw(box(i)));
+        return out;
+    }
+
+    private static Object thaw(Object v) {
+        if (v instanceof FrozenConfigNode node) return node.toMap();
+        if (v instanceof List<?> list) {
+            List<Object> out = new ArrayList<>(list.size());
+            for (Object o : list) out.add(thaw(o));
+            return out;
+        }
+        return v;
+    }
+
+    public ConfigNode thaw() {
+        return new ConfigNode(toMap());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof FrozenConfigNode other && toMap().equals(other.toMap());
+    }
+
+    @Override
+    public int hashCode() {
+        return toMap().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+}
@@ -0,0 +1,461 @@
+package fr.vortex.structrurate.repository;
+
+import fr.vortex.structrurate.VortexStructurate;
+import fr.vortex.structrurate.adapters.TypeAdapter;
+import fr.vortex.structrurate.loader.ConfigIO;
+import fr.vortex.structrurate.mapper.PojoMapper;
+import fr.vortex.structrurate.migrations.ConfigMigration;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A directory of same-typed configs, one {@code <id>.yml} file each, sharing a single mapper and
+ * {@link ConfigIO}.
+ * <p>
+ * Files are loaded lazily on first {@link #get(String)} and kept in an LRU working set of at most
+ * {@code maxLoaded} entries; an evicted entry marked dirty is written back in the background. Bulk
+ * loads and saves run on virtual threads, at most {@code parallelism} of them touching the disk at once.
+ * <p>
+ * An instance obtained earlier may have been evicted by the time it is modified, in particular after a
+ * {@link #loadAll()} larger than the working set. Hand it back with {@link #markDirty(String, Object)} or
+ * {@link #save(String, Object)}, which put that instance back into the working set.
+ */
+public final class ConfigRepository<T> implements AutoCloseable {
+
+    private static final Logger log = Logger.getLogger(ConfigRepository.class.getName());
+    private static final String EXTENSION = ".yml";
+
+    private final Path directory;
+    private final int maxLoaded;
+    private final Settings<T> settings;
+
+    private final Semaphore permits;
+    private final ExecutorService executor;
+
+    private final LinkedHashMap<String, Entry> loaded;
+    private final Map<String, Entry> evicting = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    private ConfigRepository(Builder<T> b) {
+        if (b.type == null) throw new IllegalStateException("type() required");
+        if (b.directory == null) throw new IllegalStateException("directory() required");
+        this.directory = b.directory;
+        this.maxLoaded = b.maxLoaded;
+        this.settings = new Settings<>(b.type, b.autoUpdate, b.preserveComments, b.failOnValidationErrors,
+                b.failOnUnknownFields, b.snapshot, b.mapper, b.io, new LinkedHashMap<>(b.migrations));
+        this.permits = new Semaphore(b.parallelism);
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("vortex-repository-", 0).factory());
+        this.loaded = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public static <T> Builder<T> builder(Class<T> type) {
+        return new Builder<T>().type(type);
+    }
+
+    /**
+     * The config for {@code id}, loading it on first access. A missing file yields the defaults, which are
+     * only written once the entry is saved or marked dirty.
+     */
+    public T get(String id) {
+        return entry(id).value();
+    }
+
+    /**
+     * The config for {@code id} if it is currently in the working set, without touching the disk.
+     */
+    public Optional<T> getIfLoaded(String id) {
+        Entry entry = loadedEntry(id);
+        return entry == null ? Optional.empty() : Optional.ofNullable(entry.loadedValue());
+    }
+
+    /**
+     * Marks the config currently loaded for {@code id} as modified; it is written on eviction,
+     * {@link #saveAll()} or {@link #close()}.
+     *
+     * @return {@code false} if {@code id} is no longer in the working set, nothing is marked then
+     */
+    public boolean markDirty(String id) {
+        Entry entry = loadedEntry(id);
+        return entry != null && entry.markDirty();
+    }
+
+    /**
+     * Marks {@code value} as the modified config for {@code id}, putting it back into the working set if it
+     * was evicted since it was obtained.
+     */
+    public void markDirty(String id, T value) {
+        while (!entry(id, value).markDirty(value)) {
+            // Retired by a concurrent eviction, take a fresh entry
+        }
+    }
+
+    /**
+     * Writes the config currently loaded for {@code id} now.
+     *
+     * @return {@code false} if {@code id} is no longer in the working set, nothing is written then
+     */
+    public boolean save(String id) {
+        Entry entry = loadedEntry(id);
+        if (entry == null || !entry.markDirty()) return false;
+        entry.flush();
+        return true;
+    }
+
+    /**
+     * Writes {@code value} as the config for {@code id} now, keeping it in the working set.
+     */
+    public void save(String id, T value) {
+        Entry entry;
+        do {
+            entry = entry(id, value);
+        } while (!entry.markDirty(value));
+        entry.flush();
+    }
+
+    /**
+     * Whether a file exists for {@code id}.
+     */
+    public boolean exists(String id) {
+        return Files.isRegularFile(fileOf(id));
+    }
+
+    /**
+     * Ids of every config file in the directory.
+     */
+    public List<String> ids() {
+        List<String> ids = new ArrayList<>();
+        if (!Files.isDirectory(directory)) return ids;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+            for (Path file : stream) {
+                String name = file.getFileName().toString();
+                ids.add(name.substring(0, name.length() - EXTENSION.length()));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to list " + directory, e);
+        }
+        return ids;
+    }
+
+    /**
+     * Loads every config of the directory in parallel. The returned map holds all of them, while the
+     * working set keeps only the most recent {@code maxLoaded}.
+     */
+    public Map<String, T> loadAll() {
+        return loadAll(ids());
+    }
+
+    public Map<String, T> loadAll(Collection<String> ids) {
+        Map<String, T> out = new ConcurrentHashMap<>();
+        forEachParallel(ids, id -> out.put(id, get(id)));
+        Map<String, T> ordered = new LinkedHashMap<>();
+        for (String id : ids) {
+            T value = out.get(id);
+            if (value != null) ordered.put(id, value);
+        }
+        return ordered;
+    }
+
+    /**
+     * Writes every dirty config of the working set in parallel, and waits for pending evictions.
+     */
+    public void saveAll() {
+        List<Entry> entries;
+        synchronized (loaded) {
+            entries = new ArrayList<>(loaded.values());
+        }
+        forEachParallel(entries, Entry::flush);
+        forEachParallel(new ArrayList<>(evicting.values()), this::release);
+    }
+
+    /**
+     * Drops {@code id} from the working set, writing it first if dirty.
+     */
+    public void evict(String id) {
+        Entry entry;
+        synchronized (loaded) {
+            entry = loaded.remove(id);
+            if (entry != null) evicting.put(id, entry);
+        }
+        if (entry != null) release(entry);
+    }
+
+    public int loadedCount() {
+        synchronized (loaded) {
+            return loaded.size();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        saveAll();
+        closed = true;
+        executor.close();
+    }
+
+    private Entry entry(String id) {
+        return entry(id, null);
+    }
+
+    /**
+     * The live entry for {@code id}, created around {@code value} (or loaded on first access when
+     * {@code null}) if there is none.
+     */
+    private Entry entry(String id, T value) {
+        if (closed) throw new IllegalStateException("repository closed");
+        Entry entry;
+        List<Entry> evicted = null;
+        synchronized (loaded) {
+            entry = live(loaded.get(id));
+            if (entry == null) {
+                Entry flushing = live(evicting.get(id));
+                entry = flushing != null ? flushing : new Entry(id, value);
+                loaded.put(id, entry);
+
+                if (loaded.size() > maxLoaded) {
+                    evicted = new ArrayList<>();
+                    Iterator<Entry> it = loaded.values().iterator();
+                    while (loaded.size() > maxLoaded && it.hasNext()) {
+                        Entry eldest = it.next();
+                        it.remove();
+                        // Visible to get() until written, so a reload never reads a stale file
+                        evicting.put(eldest.id, eldest);
+                        evicted.add(eldest);
+                    }
+                }
+            }
+        }
+        if (evicted != null) {
+            for (Entry e : evicted) evictLater(e);
+        }
+        return entry;
+    }
+
+    /**
+     * Writes and retires an entry of {@code evicting}, dropping it once written.
+     */
+    private void release(Entry entry) {
+        entry.retire();
+        evicting.remove(entry.id, entry);
+    }
+
+    private Entry loadedEntry(String id) {
+        Entry entry;
+        synchronized (loaded) {
+            entry = live(loaded.get(id));
+        }
+        return entry != null ? entry : live(evicting.get(id));
+    }
+
+    private Entry live(Entry entry) {
+        return entry == null || entry.retired ? null : entry;
+    }
+
+    private void evictLater(Entry entry) {
+        // Retired atomically with the dirty check, so a later markDirty never lands on an unreferenced entry
+        if (entry.retireIfClean()) {
+            evicting.remove(entry.id, entry);
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                withPermit(() -> release(entry));
+            } catch (RuntimeException e) {
+                log.log(Level.WARNING, "Failed to save evicted config " + entry.id + ", kept until the next saveAll()", e);
+            }
+        });
+    }
+
+    private <E> void forEachParallel(Collection<E> items, Consumer<E> action) {
+        List<Future<?>> futures = new ArrayList<>(items.size());
+        for (E item : items) {
+            futures.add(executor.submit(() -> withPermit(() -> action.accept(item))));
+        }
+
+        RuntimeException failure = null;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                RuntimeException ex = e.getCause() instanceof RuntimeException re ? re
+                        : new IllegalStateException(e.getCause());
+                if (failure == null) failure = ex;
+                else failure.addSuppressed(ex);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted", e);
+            }
+        }
+        if (failure != null) throw failure;
+    }
+
+    private void withPermit(Runnable action) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted", e);
+        }
+        try {
+            action.run();
+        } finally {
+            permits.release();
+        }
+    }
+
+    private Path fileOf(String id) {
+        if (id.isEmpty() || id.indexOf('/') >= 0 || id.indexOf('\\') >= 0 || id.equals(".") || id.equals("..")) {
+            throw new IllegalArgumentException("Invalid config id: " + id);
+        }
+        return directory.resolve(id + EXTENSION);
+    }
+
+    private final class Entry {
+
+        private final String id;
+        private final VortexStructurate<T> config;
+        private T value;
+        private boolean dirty;
+        private volatile boolean retired;
+
+        Entry(String id, T value) {
+            this.id = id;
+            this.config = settings.configFor(fileOf(id));
+            this.value = value;
+        }
+
+        synchronized T value() {
+            if (value == null) value = config.load();
+            return value;
+        }
+
+        synchronized T loadedValue() {
+            return value;
+        }
+
+        /**
+         * Marks the current value dirty; {@code false} once the entry left the repository.
+         */
+        synchronized boolean markDirty() {
+            if (retired) return false;
+            value();
+            dirty = true;
+            return true;
+        }
+
+        /**
+         * Makes {@code newValue} the dirty value of this entry; {@code false} once the entry left the repository.
+         */
+        synchronized boolean markDirty(T newValue) {
+            if (retired) return false;
+            value = newValue;
+            dirty = true;
+            return true;
+        }
+
+        synchronized void flush() {
+            if (!dirty || value == null) return;
+            config.save(value);
+            dirty = false;
+        }
+
+        synchronized boolean retireIfClean() {
+            if (dirty) return false;
+            retired = true;
+            return true;
+        }
+
+        /**
+         * Writes the entry if dirty and detaches it. If the write fails the entry stays live, so a later
+         * {@link #saveAll()} retries it.
+         */
+        synchronized void retire() {
+            flush();
+            retired = true;
+        }
+    }
+
+    public static class Builder<T> {
+        private Class<T> type;
+        private Path directory;
+        private int maxLoaded = 1024;
+        private int parallelism = 16;
+        private boolean autoUpdate = false;
+        private boolean preserveComments = true;
+        private boolean failOnValidationErrors = false;
+        private boolean failOnUnknownFields = false;
+        private boolean snapshot = false;
+
+        private PojoMapper mapper = new PojoMapper();
+        private ConfigIO io = new ConfigIO();
+        private final Map<Integer, ConfigMigration> migrations = new LinkedHashMap<>();
+
+        public Builder<T> type(Class<T> type) { this.type = type; return this; }
+        public Builder<T> directory(Path directory) { this.directory = directory; return this; }
+        public Builder<T> maxLoaded(int max) { this.maxLoaded = Math.max(1, max); return this; }
+        public Builder<T> parallelism(int parallelism) { this.parallelism = Math.max(1, parallelism); return this; }
+        public Builder<T> autoUpdate(boolean b) { this.autoUpdate = b; return this; }
+        public Builder<T> preserveComments(boolean b) { this.preserveComments = b; return this; }
+        public Builder<T> failOnValidationErrors(boolean b) { this.failOnValidationErrors = b; return this; }
+        public Builder<T> failOnUnknownFields(boolean b) { this.failOnUnknownFields = b; return this; }
+        public Builder<T> snapshot(boolean b) { this.snapshot = b; return this; }
+        public Builder<T> mapper(PojoMapper mapper) { this.mapper = mapper; return this; }
+        public Builder<T> io(ConfigIO io) { this.io = io; return this; }
+
+        public <C> Builder<T> registerTypeAdapter(Class<C> cls, TypeAdapter<C> adapter) {
+            mapper.registerAdapter(cls, adapter);
+            return this;
+        }
+
+        public Builder<T> registerMigration(int toVersion, ConfigMigration migration) {
+            migrations.put(toVersion, migration);
+            return this;
+        }
+
+        public ConfigRepository<T> build() {
+            return new ConfigRepository<>(this);
+        }
+    }
+
+    /**
+     * Builder settings as they were at {@link Builder#build()}, so later builder calls do not reach the repository.
+     */
+    private record Settings<T>(Class<T> type, boolean autoUpdate, boolean preserveComments, boolean failOnValidationErrors,
+                               boolean failOnUnknownFields, boolean snapshot, PojoMapper mapper, ConfigIO io,
+                               Map<Integer, ConfigMigration> migrations) {
+
+        VortexStructurate<T> configFor(Path file) {
+            VortexStructurate.Builder<T> b = VortexStructurate.<T>builder()
+                    .type(type)
+                    .file(file)
+                    .autoUpdate(autoUpdate)
+                    .preserveComments(preserveComments)
+                    .failOnValidationErrors(failOnValidationErrors)
+                    .failOnUnknownFields(failOnUnknownFields)
+                    .snapshot(snapshot)
+                    .mapper(mapper)
+                    .io(io);
+            migrations.forEach(b::registerMigration);
+            return b.build();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package fr.vortex.structrurate.watch;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Result of a reload: the freshly mapped object and the dotted key paths whose value differs from the
+ * previous load. Sections report their changed leaves ({@code shop.items.sword}), not themselves.
+ */
+public record ConfigChange<T>(T value, Set<String> changedKeys) {
+
+    public boolean isEmpty() {
+        return changedKeys.isEmpty();
+    }
+
+    /**
+     * Whether {@code path} itself or anything below it changed.
+     */
+    public boolean changed(String path) {
+        if (changedKeys.contains(path)) return true;
+        for (String key : changedKeys) {
+            if (key.length() > path.length() && key.startsWith(path) && key.charAt(path.length()) == '.') return true;
+        }
+        return false;
+    }
+
+    /**
+     * Dotted paths of every leaf added, removed or modified between two config trees.
+     */
+    public static Set<String> diff(Map<String, Object> before, Map<String, Object> after) {
+        Set<String> out = new LinkedHashSet<>();
+        diff("", before == null ? Map.of() : before, after == null ? Map.of() : after, out);
+        return Collections.unmodifiableSet(out);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void diff(String prefix, Map<String, Object> before, Map<String, Object> after, Set<String> out) {
+        for (Map.Entry<String, Object> e : after.entrySet()) {
+            Object old = before.get(e.getKey());
+            Object now = e.getValue();
+            String path = prefix + e.getKey();
+            if (old instanceof Map && now instanceof Map) {
+                diff(path + ".", (Map<String, Object>) old, (Map<String, Object>) now, out);
+            } else if (now instanceof Map && !before.containsKey(e.getKey())) {
+                diff(path + ".", Map.of(), (Map<String, Object>) now, out);
+            } else if (!before.containsKey(e.getKey()) || !Objects.equals(old, now)) {
+                out.add(path);
+            }
+        }
+        for (Map.Entry<String, Object> e : before.entrySet()) {
+            if (after.containsKey(e.getKey())) continue;
+            if (e.getValue() instanceof Map) diff(prefix + e.getKey() + ".", (Map<String, Object>) e.getValue(), Map.of(), out);
+            else out.add(prefix + e.getKey());
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package fr.vortex.structrurate.watch;
+
+import fr.vortex.structrurate.VortexStructurate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32C;
+
+/**
+ * Hot reload for any number of {@link VortexStructurate} files, served by a single watcher thread.
+ * <p>
+ * Changes to a file are debounced so an editor's save burst triggers one reload, and the reload is skipped
+ * when the file content hash did not change. Writes by the config itself are recorded as they happen, so
+ * they never come back as a reload. Listeners receive the new object with the changed key paths,
+ * and are not called when a reload changed nothing. Listeners run on the watcher thread.
+ */
+public final class ConfigWatcher implements AutoCloseable {
+
+    private static final Logger log = Logger.getLogger(ConfigWatcher.class.getName());
+
+    private final long debounceNanos;
+    private final WatchService service;
+    private final Thread thread;
+
+    private final Map<Path, List<Watched<?>>> files = new ConcurrentHashMap<>();
+    private final Map<Path, WatchKey> directories = new HashMap<>();
+    private final Map<Path, Long> pending = new HashMap<>();
+    private volatile boolean closed;
+
+    public ConfigWatcher() {
+        this(Duration.ofMillis(250));
+    }
+
+    public ConfigWatcher(Duration debounce) {
+        this.debounceNanos = debounce.toNanos();
+        try {
+            this.service = FileSystems.getDefault().newWatchService();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to create watch service", e);
+        }
+        this.thread = new Thread(this::run, "vortex-config-watcher");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Reloads {@code config} whenever its file changes and passes the result to {@code listener}.
+     * Closing the returned registration stops watching it.
+     */
+    public <T> Registration watch(VortexStructurate<T> config, Consumer<ConfigChange<T>> listener) {
+        if (closed) throw new IllegalStateException("watcher closed");
+
+        Path file = config.getFile().toAbsolutePath().normalize();
+        Path dir = file.getParent();
+        Watched<T> watched = new Watched<>(config, listener, hash(file));
+        synchronized (directories) {
+            if (!directories.containsKey(dir)) {
+                try {
+                    Files.createDirectories(dir);
+                    directories.put(dir, dir.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                            StandardWatchEventKinds.ENTRY_MODIFY));
+                } catch (IOException e) {
+                    throw new IllegalStateException("Failed to watch " + dir, e);
+                }
+            }
+            files.computeIfAbsent(file, f -> new CopyOnWriteArrayList<>()).add(watched);
+        }
+        config.addWriteListener(watched.onWrite);
+        return () -> unwatch(file, watched);
+    }
+
+    private void unwatch(Path file, Watched<?> watched) {
+        watched.config.removeWriteListener(watched.onWrite);
+        synchronized (directories) {
+            List<Watched<?>> list = files.get(file);
+            if (list == null || !list.remove(watched) || !list.isEmpty()) return;
+            files.remove(file);
+
+            Path dir = file.getParent();
+            for (Path other : files.keySet()) {
+                if (other.getParent().equals(dir)) return;
+            }
+            WatchKey key = directories.remove(dir);
+            if (key != null) key.cancel();
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            service.close();
+        } catch (IOException ignored) {
+        }
+        thread.interrupt();
+    }
+
+    private void run() {
+        try {
+            while (!closed) {
+                WatchKey key = nextKey();
+                if (key != null) {
+                    collect(key);
+                    key.reset();
+                }
+                fireDue();
+            }
+        } catch (ClosedWatchServiceException | InterruptedException ignored) {
+        }
+    }
+
+    private WatchKey nextKey() throws InterruptedException {
+        if (pending.isEmpty()) return service.take();
+
+        long next = Long.MAX_VALUE;
+        for (long due : pending.values()) next = Math.min(next, due);
+        long wait = next - System.nanoTime();
+        return wait <= 0 ? service.poll() : service.poll(wait, TimeUnit.NANOSECONDS);
+    }
+
+    private void collect(WatchKey key) {
+        Path dir = (Path) key.watchable();
+        long due = System.nanoTime() + debounceNanos;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                for (Path file : files.keySet()) {
+                    if (file.getParent().equals(dir)) pending.put(file, due);
+                }
+                continue;
+            }
+            Path file = dir.resolve((Path) event.context());
+            if (files.containsKey(file)) pending.put(file, due);
+        }
+    }
+
+    private void fireDue() {
+        long now = System.nanoTime();
+        for (Iterator<Map.Entry<Path, Long>> it = pending.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Path, Long> e = it.next();
+            if (e.getValue() - now > 0) continue;
+            it.remove();
+
+            List<Watched<?>> list = files.get(e.getKey());
+            if (list == null) continue;
+            for (Watched<?> watched : list) watched.reload(e.getKey());
+        }
+    }
+
+    /**
+     * CRC32C of the file content, or {@code -1} when it cannot be read.
+     */
+    private static long hash(Path file) {
+        try {
+            return hash(Files.readAllBytes(file));
+        } catch (NoSuchFileException e) {
+            return -1;
+        } catch (IOException e) {
+            log.log(Level.FINE, "Failed to hash " + file, e);
+            return -1;
+        }
+    }
+
+    private static long hash(byte[] content) {
+        CRC32C crc = new CRC32C();
+        crc.update(content);
+        return crc.getValue();
+    }
+
+    public interface Registration extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static final class Watched<T> {
+
+        private final VortexStructurate<T> config;
+        private final Consumer<ConfigChange<T>> listener;
+        private final Consumer<String> onWrite = text -> hash = hash(text.getBytes(StandardCharsets.UTF_8));
+        private volatile long hash;
+
+        Watched(VortexStructurate<T> config, Consumer<ConfigChange<T>> listener, long hash) {
+            this.config = config;
+            this.listener = listener;
+            this.hash = hash;
+        }
+
+        void reload(Path file) {
+            ConfigChange<T> change = null;
+            // Under the config lock a save is either not started or already recorded, never half done
+            synchronized (config.getLock()) {
+                long current = hash(file);
+                if (current < 0 || current == hash) return;
+                try {
+                    change = config.reloadChanges();
+                } catch (RuntimeException ex) {
+                    log.log(Level.WARNING, "Failed to reload " + file, ex);
+                }
+                hash = hash(file);
+            }
+            if (change == null || change.isEmpty()) return;
+            try {
+                listener.accept(change);
+            } catch (RuntimeException ex) {
+                log.log(Level.WARNING, "Listener failed for " + file, ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package fr.vortex.structrurate;
+
+import fr.vortex.structrurate.loader.ConfigIO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ConcurrentModificationException;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AutoSaveTest {
+
+    @TempDir
+    Path dir;
+
+    static class Settings {
+        String motd = "hello";
+    }
+
+    /**
+     * Throws on write while {@code broken} is set, like an unexpected I/O failure.
+     */
+    static class FlakyIO extends ConfigIO {
+        volatile boolean broken;
+
+        @Override
+        public boolean writeText(Path file, String text) {
+            if (broken) throw new ConcurrentModificationException();
+            return super.writeText(file, text);
+        }
+    }
+
+    private VortexStructurate<Settings> config(Path file, ConfigIO io) {
+        return VortexStructurate.<Settings>builder()
+                .type(Settings.class)
+                .file(file)
+                .autoSave(true)
+                .autoSaveDelay(Duration.ofHours(1))
+                .autoUpdate(false)
+                .preserveComments(false)
+                .io(io)
+                .build();
+    }
+
+    @Test
+    void failedWriteStaysPending() throws Exception {
+        Path blocker = dir.resolve("blocker");
+        Files.writeString(blocker, "not a directory");
+        Path file = blocker.resolve("settings.yml");
+        VortexStructurate<Settings> config = config(file, new ConfigIO());
+
+        Settings settings = new Settings();
+        settings.motd = "kept";
+        config.markDirty(settings);
+        config.flush();
+        assertFalse(Files.exists(file));
+
+        Files.delete(blocker);
+        config.flush();
+        assertTrue(Files.readString(file).contains("kept"));
+    }
+
+    @Test
+    void throwingSaveStaysPending() throws Exception {
+        Path file = dir.resolve("settings.yml");
+        FlakyIO io = new FlakyIO();
+        VortexStructurate<Settings> config = config(file, io);
+
+        Settings settings = new Settings();
+        settings.motd = "kept";
+        io.broken = true;
+        config.markDirty(settings);
+        assertThrows(ConcurrentModificationException.class, config::flush);
+        assertFalse(Files.exists(file));
+
+        io.broken = false;
+        config.flush();
+        assertTrue(Files.readString(file).contains("kept"));
+    }
+
+    @Test
+    void writesTheInstanceAsItWasWhenMarkedDirty() throws Exception {
+        Path file = dir.resolve("settings.yml");
+        VortexStructurate<Settings> config = config(file, new ConfigIO());
+
+        Settings settings = new Settings();
+        settings.motd = "marked";
+        config.markDirty(settings);
+        settings.motd = "changed later";
+        config.flush();
+
+        String text = Files.readString(file);
+        assertTrue(text.contains("marked"), text);
+        assertFalse(text.contains("changed later"), text);
+    }
+
+    @Test
+    void rejectsMissingDelay() {
+        assertThrows(IllegalArgumentException.class, () -> VortexStructurate.<Settings>builder().autoSaveDelay(null));
+    }
+}
@@ -0,0 +1,97 @@
+package fr.vortex.structrurate.loader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConfigLayoutTest {
+
+    @TempDir
+    Path dir;
+
+    private final ConfigIO io = new ConfigIO();
+
+    private Path file(String yaml) throws Exception {
+        Path file = dir.resolve("config.yml");
+        Files.writeString(file, yaml);
+        return file;
+    }
+
+    private static Map<String, Object> map(Object... entries) {
+        Map<String, Object> out = new LinkedHashMap<>();
+        for (int i = 0; i < entries.length; i += 2) out.put((String) entries[i], entries[i + 1]);
+        return out;
+    }
+
+    @Test
+    void editsKeepInlineComments() throws Exception {
+        Path file = file("# Server\nname: lobby # shown in the list\nlimits:\n  players: 20 # hard cap\n  bots: 2\n");
+        io.writePreserving(file, map("name", "hub", "limits", map("players", 50, "bots", 2)), List.of(), null);
+
+        assertEquals("# Server\nname: hub # shown in the list\nlimits:\n  players: 50 # hard cap\n  bots: 2\n",
+                Files.readString(file));
+    }
+
+    @Test
+    void newKeysAreAppendedToTheirBlock() throws Exception {
+        Path file = file("limits:\n  players: 20 # hard cap\nname: lobby\n");
+        io.writePreserving(file, map("limits", map("players", 20, "bots", 3), "name", "lobby"), List.of(), null);
+
+        assertEquals("limits:\n  players: 20 # hard cap\n  bots: 3\nname: lobby\n", Files.readString(file));
+    }
+
+    @Test
+    void aliasedMappingIsNotPatchedThroughItsAnchor() throws Exception {
+        Path file = file("defaults: &d\n  speed: 1\nworld: *d\n");
+        io.writePreserving(file, map("defaults", map("speed", 1), "world", map("speed", 2)), List.of(), null);
+
+        Map<String, Object> read = io.readWithHeader(file).map();
+        assertEquals(map("speed", 1), read.get("defaults"));
+        assertEquals(map("speed", 2), read.get("world"));
+    }
+
+    @Test
+    void sameKeyChangedThroughTwoAliasesDoesNotThrow() throws Exception {
+        Path file = file("base: &b\n  speed: 1\na: *b\nb: *b\n");
+        io.writePreserving(file, map("base", map("speed", 1), "a", map("speed", 2), "b", map("speed", 3)), List.of(), null);
+
+        Map<String, Object> read = io.readWithHeader(file).map();
+        assertEquals(map("speed", 2), read.get("a"));
+        assertEquals(map("speed", 3), read.get("b"));
+    }
+
+    @Test
+    void mappingSharedThroughMergeKeyIsNotPatched() throws Exception {
+        Path file = file("base: &b\n  inner:\n    x: 1\nchild:\n  <<: *b\n");
+        io.writePreserving(file, map("base", map("inner", map("x", 1)), "child", map("inner", map("x", 5))), List.of(), null);
+
+        Map<String, Object> read = io.readWithHeader(file).map();
+        assertEquals(map("inner", map("x", 1)), read.get("base"));
+        assertEquals(map("inner", map("x", 5)), read.get("child"));
+    }
+
+    @Test
+    void anchoredScalarIsNotPatched() throws Exception {
+        Path file = file("a: &s 1\nb: *s\n");
+        io.writePreserving(file, map("a", 2, "b", 1), List.of(), null);
+
+        assertEquals(map("a", 2, "b", 1), io.readWithHeader(file).map());
+    }
+
+    @Test
+    void unchangedAnchorsKeepTheLayout() throws Exception {
+        String text = "defaults: &d\n  speed: 1\nworld: *d\nname: lobby # comment\n";
+        Path file = file(text);
+        io.writePreserving(file, map("defaults", map("speed", 1), "world", map("speed", 1), "name", "hub"), List.of(), null);
+
+        assertTrue(Files.readString(file).endsWith("world: *d\nname: hub # comment\n"));
+    }
+}
@@ -0,0 +1,84 @@
+package fr.vortex.structrurate.loader;
+
+import fr.vortex.structrurate.VortexStructurate;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConfigSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    enum Difficulty { PEACEFUL, HARD }
+
+    static class World {
+        String name = "overworld";
+        Difficulty difficulty = Difficulty.HARD;
+        List<Difficulty> allowed = List.of(Difficulty.PEACEFUL, Difficulty.HARD);
+        float gravity = 0.8f;
+    }
+
+    private VortexStructurate<World> config(Path file) {
+        return VortexStructurate.<World>builder().type(World.class).file(file).snapshot(true).build();
+    }
+
+    @Test
+    void roundTripsTreeWithEnums() throws Exception {
+        Path file = dir.resolve("world.yml");
+        Files.writeString(file, "name: nether\n");
+        ConfigSnapshot.Stamp stamp = ConfigSnapshot.Stamp.of(file);
+
+        Map<String, Object> tree = new LinkedHashMap<>();
+        tree.put("name", "nether");
+        tree.put("difficulty", Difficulty.HARD);
+        tree.put("allowed", List.of(Difficulty.PEACEFUL));
+        ConfigSnapshot.write(file, stamp, 42, new ConfigSnapshot.Data(List.of("# header"), tree, false));
+
+        ConfigSnapshot.Data data = ConfigSnapshot.read(file, stamp, 42);
+        assertNotNull(data);
+        assertEquals(List.of("# header"), data.header());
+        assertEquals(Map.of("name", "nether", "difficulty", "HARD", "allowed", List.of("PEACEFUL")), data.tree());
+        assertNull(ConfigSnapshot.read(file, stamp, 43));
+    }
+
+    @Test
+    void configWithEnumFieldLoadsFromSnapshot() throws Exception {
+        Path file = dir.resolve("world.yml");
+        World first = config(file).load();
+        first.difficulty = Difficulty.PEACEFUL;
+        config(file).save(first);
+        // Used to be skipped for any tree holding an enum
+        assertTrue(Files.exists(ConfigSnapshot.fileFor(file)));
+
+        World loaded = config(file).load();
+        assertEquals(Difficulty.PEACEFUL, loaded.difficulty);
+        assertEquals(List.of(Difficulty.PEACEFUL, Difficulty.HARD), loaded.allowed);
+        assertEquals(0.8f, loaded.gravity);
+    }
+
+    @Test
+    void sameSizeEditIsCaughtByCrc() throws Exception {
+        Path file = dir.resolve("world.yml");
+        config(file).load();
+        ConfigSnapshot.Stamp stamp = ConfigSnapshot.Stamp.of(file);
+
+        String text = Files.readString(file);
+        Files.writeString(file, text.replace("overworld", "netherrak"));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(stamp.modified()));
+        assertEquals(stamp, ConfigSnapshot.Stamp.of(file));
+
+        assertEquals("netherrak", config(file).load().name);
+    }
+}
@@ -0,0 +1,34 @@
+package fr.vortex.structrurate.loader;
+
+import org.junit.jupiter.api.Test;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.parser.ParserImpl;
+import org.yaml.snakeyaml.reader.StreamReader;
+
+import java.io.StringReader;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class YamlTreeBuilderTest {
+
+    private static Object build(String yaml) {
+        return YamlTreeBuilder.build(new ParserImpl(new StreamReader(new StringReader(yaml)), new LoaderOptions()));
+    }
+
+    @Test
+    void scalarsDoNotDependOnTheDefaultLocale() {
+        Locale previous = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+        try {
+            Map<?, ?> tree = (Map<?, ?>) build("max: .INF\nmin: -.Inf\nenabled: TRUE\nflag: YES\n");
+            assertEquals(Double.POSITIVE_INFINITY, tree.get("max"));
+            assertEquals(Double.NEGATIVE_INFINITY, tree.get("min"));
+            assertEquals(Boolean.TRUE, tree.get("enabled"));
+            assertEquals(Boolean.TRUE, tree.get("flag"));
+        } finally {
+            Locale.setDefault(previous);
+        }
+    }
+}
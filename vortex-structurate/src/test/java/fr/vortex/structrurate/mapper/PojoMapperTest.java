@@ -0,0 +1,92 @@
+package fr.vortex.structrurate.mapper;
+
+import fr.vortex.structrurate.loader.ConfigIO;
+import fr.vortex.structrurate.node.ConfigNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PojoMapperTest {
+
+    enum Mode { FAST, SAFE }
+
+    static class Keys {
+        Map<Mode, Integer> limits = new EnumMap<>(Map.of(Mode.FAST, 3));
+        Map<UUID, String> owners = new LinkedHashMap<>(Map.of(UUID.fromString("00000000-0000-0000-0000-000000000001"), "bob"));
+        Map<String, Integer> plain = new LinkedHashMap<>(Map.of("a", 1));
+        Mode mode = Mode.SAFE;
+        List<Mode> modes = List.of(Mode.FAST);
+    }
+
+    static class Item {
+        String name = "stone";
+        long price = 1;
+    }
+
+    static class Shop {
+        short slots = 9;
+        double tax = 0.5;
+        List<Item> items = List.of(new Item());
+        Map<String, Item> byName = new LinkedHashMap<>();
+    }
+
+    static class Frozen {
+        final Integer limit = Integer.valueOf(5);
+        String name = "a";
+    }
+
+    @Test
+    void classWithFinalFieldLoadsTheSameWithoutGeneratedCodec() {
+        assertThrows(ClassNotFoundException.class,
+                () -> Class.forName(Frozen.class.getPackageName() + ".PojoMapperTest_Frozen_VortexCodec"));
+
+        Frozen read = new PojoMapper().fromNode(Frozen.class, new ConfigNode(new LinkedHashMap<>(Map.of("limit", 9, "name", "b"))));
+        assertEquals(9, read.limit);
+        assertEquals("b", read.name);
+    }
+
+    @Test
+    void nestedPojosAndNumbersRoundTrip() {
+        PojoMapper mapper = new PojoMapper();
+        Map<String, Object> item = new LinkedHashMap<>(Map.of("name", "gold", "price", 40));
+        ConfigNode node = new ConfigNode(new LinkedHashMap<>(Map.of(
+                "slots", 27, "tax", 1, "items", List.of(item), "byName", Map.of("gold", item))));
+
+        Shop shop = mapper.fromNode(Shop.class, node);
+        assertEquals(27, shop.slots);
+        assertEquals(1.0, shop.tax);
+        assertEquals("gold", shop.items.get(0).name);
+        assertEquals(40L, shop.items.get(0).price);
+        assertEquals(40L, shop.byName.get("gold").price);
+
+        Map<String, Object> encoded = mapper.toNode(shop).map();
+        assertEquals(List.of(Map.of("name", "gold", "price", 40L)), encoded.get("items"));
+        assertEquals(Map.of("gold", Map.of("name", "gold", "price", 40L)), encoded.get("byName"));
+    }
+
+    @Test
+    void mapKeysAreEncodedAndRoundTrip() {
+        PojoMapper mapper = new PojoMapper();
+        Keys keys = new Keys();
+        keys.limits.put(Mode.SAFE, 1);
+
+        ConfigNode node = mapper.toNode(keys);
+        String yaml = new ConfigIO().render(node.map(), List.of());
+        assertFalse(yaml.contains("!!"), yaml);
+
+        Keys read = mapper.fromNode(Keys.class, node);
+        assertEquals(keys.limits, read.limits);
+        assertEquals(keys.owners, read.owners);
+        assertEquals(keys.plain, read.plain);
+        assertEquals(Mode.SAFE, read.mode);
+        assertEquals(List.of(Mode.FAST), read.modes);
+    }
+}
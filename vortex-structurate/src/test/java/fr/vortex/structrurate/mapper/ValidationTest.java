@@ -0,0 +1,106 @@
+package fr.vortex.structrurate.mapper;
+
+import fr.vortex.structrurate.VortexStructurate;
+import fr.vortex.structrurate.annotations.NotNull;
+import fr.vortex.structrurate.annotations.Range;
+import fr.vortex.structrurate.annotations.Regex;
+import fr.vortex.structrurate.node.ConfigNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ValidationTest {
+
+    @TempDir
+    Path dir;
+
+    static class Limits {
+        @Range(min = 1, max = 10)
+        int max = 5;
+    }
+
+    static class Shop {
+        @Regex("[a-z]+")
+        String name = "shop";
+        @Range(min = 0)
+        int price = 1;
+        @NotNull
+        String owner = "admin";
+        Limits limits = new Limits();
+    }
+
+    private Path file(String yaml) throws Exception {
+        Path file = dir.resolve("shop.yml");
+        Files.writeString(file, yaml);
+        return file;
+    }
+
+    private VortexStructurate.Builder<Shop> builder(Path file) {
+        return VortexStructurate.<Shop>builder().type(Shop.class).file(file).autoUpdate(false);
+    }
+
+    @Test
+    void constraintsComeFromTheGeneratedCodec() throws Exception {
+        Class<?> codec = Class.forName(Shop.class.getPackageName() + ".ValidationTest_Shop_VortexCodec");
+        GeneratedCodec<?> generated = (GeneratedCodec<?>) codec.getConstructor().newInstance();
+        GeneratedCodec.Property price = generated.properties().get(1);
+        assertEquals(new GeneratedCodec.Constraints(false, true, 0, Long.MAX_VALUE, null), price.constraints());
+    }
+
+    @Test
+    void collectsEveryViolation() throws Exception {
+        Path file = file("name: Shop1\nprice: -3\nlimits:\n  max: 40\n");
+        ConfigValidationException error = assertThrows(ConfigValidationException.class,
+                () -> builder(file).failOnValidationErrors(true).build().load());
+
+        List<String> paths = error.violations().stream().map(ConfigViolation::path).toList();
+        assertEquals(List.of("name", "price", "limits.max"), paths);
+    }
+
+    @Test
+    void unknownKeysFailWithoutFailOnValidationErrors() throws Exception {
+        Path file = file("name: shop\nprise: 3\n");
+        ConfigValidationException error = assertThrows(ConfigValidationException.class,
+                () -> builder(file).failOnUnknownFields(true).build().load());
+        assertEquals(List.of(new ConfigViolation("prise", "unknown key", ConfigViolation.Kind.UNKNOWN_KEY)), error.violations());
+    }
+
+    @Test
+    void otherViolationsAreOnlyLoggedWithFailOnUnknownFields() throws Exception {
+        Path file = file("name: shop\nprice: -3\n");
+        Shop shop = assertDoesNotThrow(() -> builder(file).failOnUnknownFields(true).build().load());
+        assertEquals(-3, shop.price);
+    }
+
+    @Test
+    void passesOnVirtualThreadsKeepTheirOwnViolations() throws Exception {
+        PojoMapper mapper = new PojoMapper();
+        List<List<ConfigViolation>> reports = new CopyOnWriteArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Map<String, Object> limits = new LinkedHashMap<>(Map.of("max", 40 + i));
+            Map<String, Object> raw = new LinkedHashMap<>(Map.of("name", "shop", "limits", limits));
+            threads.add(Thread.ofVirtual().start(
+                    () -> mapper.fromNode(Shop.class, new ConfigNode(raw), false, reports::add)));
+        }
+        for (Thread t : threads) t.join();
+
+        assertEquals(50, reports.size());
+        for (List<ConfigViolation> violations : reports) {
+            assertEquals(1, violations.size());
+            assertEquals("limits.max", violations.getFirst().path());
+            assertEquals(ConfigViolation.Kind.CONSTRAINT, violations.getFirst().kind());
+        }
+    }
+}
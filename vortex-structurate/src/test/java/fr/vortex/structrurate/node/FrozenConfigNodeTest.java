@@ -0,0 +1,109 @@
+package fr.vortex.structrurate.node;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FrozenConfigNodeTest {
+
+    private static Map<String, Object> map(Object... entries) {
+        Map<String, Object> out = new LinkedHashMap<>();
+        for (int i = 0; i < entries.length; i += 2) out.put((String) entries[i], entries[i + 1]);
+        return out;
+    }
+
+    private static FrozenConfigNode tree() {
+        Map<String, Object> items = new LinkedHashMap<>();
+        // Past the linear scan threshold, so lookups go through the hash index
+        for (int i = 0; i < 20; i++) items.put("item" + i, i * 10);
+        return FrozenConfigNode.of(map(
+                "shop", map("name", "Main", "open", true, "tax", 0.2, "stock", 5_000_000_000L, "items", items),
+                "ratio", 1.5f,
+                "small", (short) 7,
+                "tags", new ArrayList<>(List.of("a", map("b", 1))),
+                "none", null));
+    }
+
+    @Test
+    void pathsResolveThroughNestedSections() {
+        FrozenConfigNode tree = tree();
+
+        assertEquals("Main", tree.getString(ConfigPath.of("shop.name"), "?"));
+        assertEquals(190, tree.getInt(ConfigPath.of("shop.items.item19"), -1));
+        assertEquals(30, tree.getInt(ConfigPath.of("shop").child("items").child("item3"), -1));
+        assertEquals(20, tree.node(ConfigPath.of("shop.items")).size());
+        assertTrue(tree.has(ConfigPath.of("shop.items.item0")));
+        assertTrue(tree.has(ConfigPath.of("none")));
+        assertNull(tree.get(ConfigPath.of("none")));
+    }
+
+    @Test
+    void missingOrNonSectionSegmentsGiveTheDefault() {
+        FrozenConfigNode tree = tree();
+
+        assertFalse(tree.has(ConfigPath.of("shop.items.item20")));
+        assertFalse(tree.has(ConfigPath.of("nowhere.items")));
+        assertEquals(-1, tree.getInt(ConfigPath.of("shop.name.length"), -1));
+        assertNull(tree.node(ConfigPath.of("shop.name")));
+        assertNull(tree.get(ConfigPath.of("ratio.x")));
+    }
+
+    @Test
+    void primitiveGettersConvertOnlyLosslessly() {
+        FrozenConfigNode shop = tree().node("shop");
+
+        assertTrue(shop.getBoolean("open", false));
+        assertEquals(0.2, shop.getDouble("tax", 0));
+        assertEquals(5_000_000_000L, shop.getLong("stock", 0));
+        assertEquals(-1, shop.getInt("stock", -1));
+        assertEquals(5_000_000_000.0, shop.getDouble("stock", 0));
+        assertEquals(-1, shop.getInt("tax", -1));
+        assertEquals(-1, shop.getLong("name", -1));
+        assertFalse(shop.getBoolean("name", false));
+        assertEquals("?", shop.getString("open", "?"));
+        assertEquals(1.5, tree().getDouble("ratio", 0));
+        assertEquals(7, tree().getInt("small", 0));
+    }
+
+    @Test
+    void getBoxesValuesAndFreezesNestedLists() {
+        FrozenConfigNode tree = tree();
+
+        assertEquals(7, tree.get("small"));
+        assertEquals(5_000_000_000L, tree.get(ConfigPath.of("shop.stock")));
+        List<?> tags = (List<?>) tree.get("tags");
+        assertEquals(FrozenConfigNode.of(map("b", 1)), tags.get(1));
+        assertThrows(UnsupportedOperationException.class, () -> tags.remove(0));
+    }
+
+    @Test
+    void toMapIsAMutableCopyOfTheSource() {
+        Map<String, Object> source = map("a", 1, "b", map("c", List.of(map("d", true))));
+        FrozenConfigNode frozen = FrozenConfigNode.of(source);
+        Map<String, Object> copy = frozen.toMap();
+
+        assertEquals(source, copy);
+        copy.put("a", 2);
+        assertEquals(1, frozen.getInt("a", 0));
+        assertEquals(frozen, new ConfigNode(source).freeze());
+    }
+
+    @Test
+    void pathsRejectEmptySegments() {
+        assertThrows(IllegalArgumentException.class, () -> ConfigPath.of(""));
+        assertThrows(IllegalArgumentException.class, () -> ConfigPath.of("a..b"));
+        assertThrows(IllegalArgumentException.class, () -> ConfigPath.of("a."));
+        assertEquals(ConfigPath.of("a.b"), ConfigPath.of("a").child("b"));
+        assertEquals(2, ConfigPath.of("a.b").depth());
+        assertEquals("b", ConfigPath.of("a.b").segment(1));
+    }
+}
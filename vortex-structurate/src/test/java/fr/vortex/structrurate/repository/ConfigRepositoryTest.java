@@ -0,0 +1,109 @@
+package fr.vortex.structrurate.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConfigRepositoryTest {
+
+    @TempDir
+    Path dir;
+
+    static class Account {
+        String owner = "nobody";
+        int balance;
+    }
+
+    private ConfigRepository<Account> repository(int maxLoaded) {
+        return ConfigRepository.builder(Account.class).directory(dir).maxLoaded(maxLoaded).parallelism(4).build();
+    }
+
+    @Test
+    void evictedInstanceIsWrittenWhenHandedBack() {
+        try (ConfigRepository<Account> repo = repository(1)) {
+            Account first = repo.get("first");
+            repo.get("second"); // evicts "first", which is clean
+
+            first.balance = 42;
+            assertFalse(repo.markDirty("first"));
+            repo.markDirty("first", first);
+
+            assertSame(first, repo.get("first"));
+        }
+
+        try (ConfigRepository<Account> repo = repository(1)) {
+            assertEquals(42, repo.get("first").balance);
+        }
+    }
+
+    @Test
+    void loadAllLargerThanWorkingSetKeepsEveryEdit() {
+        List<String> ids = List.of("a", "b", "c", "d", "e", "f");
+        try (ConfigRepository<Account> repo = repository(2)) {
+            Map<String, Account> all = repo.loadAll(ids);
+            assertEquals(2, repo.loadedCount());
+
+            all.forEach((id, account) -> {
+                account.owner = id;
+                repo.markDirty(id, account);
+            });
+        }
+
+        try (ConfigRepository<Account> repo = repository(2)) {
+            for (String id : ids) assertEquals(id, repo.get(id).owner);
+        }
+    }
+
+    @Test
+    void saveWritesHandedBackInstance() {
+        try (ConfigRepository<Account> repo = repository(1)) {
+            Account account = repo.get("x");
+            repo.get("y");
+
+            account.balance = 7;
+            assertFalse(repo.save("x"));
+            repo.save("x", account);
+            assertTrue(repo.exists("x"));
+        }
+
+        try (ConfigRepository<Account> repo = repository(4)) {
+            assertEquals(7, repo.get("x").balance);
+        }
+    }
+
+    @Test
+    void dirtyEntryIsFlushedOnEviction() {
+        try (ConfigRepository<Account> repo = repository(1)) {
+            Account account = repo.get("x");
+            account.owner = "alice";
+            assertTrue(repo.markDirty("x"));
+
+            repo.get("y");
+            repo.saveAll(); // waits for the background eviction write
+            assertTrue(repo.exists("x"));
+        }
+
+        try (ConfigRepository<Account> repo = repository(1)) {
+            assertEquals("alice", repo.get("x").owner);
+        }
+    }
+
+    @Test
+    void builderChangesAfterBuildDoNotReachTheRepository() {
+        ConfigRepository.Builder<Account> builder = ConfigRepository.builder(Account.class).directory(dir).autoUpdate(false);
+        try (ConfigRepository<Account> repo = builder.build()) {
+            builder.autoUpdate(true);
+            repo.get("late");
+            assertFalse(Files.exists(dir.resolve("late.yml")));
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package fr.vortex.structrurate.watch;
+
+import fr.vortex.structrurate.VortexStructurate;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ConfigWatcherTest {
+
+    @TempDir
+    Path dir;
+
+    enum Mode { EASY, HARD }
+
+    static class Game {
+        String motd = "hello";
+        int slots = 10;
+        Mode mode = Mode.EASY;
+        float speed = 1.5f;
+    }
+
+    @Test
+    void ownSavesAreNotReloaded() throws Exception {
+        Path file = dir.resolve("game.yml");
+        VortexStructurate<Game> config = VortexStructurate.<Game>builder().type(Game.class).file(file).build();
+        Game game = config.load();
+
+        BlockingQueue<ConfigChange<Game>> changes = new LinkedBlockingQueue<>();
+        try (ConfigWatcher watcher = new ConfigWatcher(Duration.ofMillis(50))) {
+            watcher.watch(config, changes::add);
+
+            for (int i = 0; i < 5; i++) {
+                game.slots = 20 + i;
+                config.save(game);
+            }
+            assertNull(changes.poll(500, TimeUnit.MILLISECONDS));
+
+            Files.writeString(file, Files.readString(file).replace("motd: hello", "motd: edited"));
+            ConfigChange<Game> change = changes.poll(5, TimeUnit.SECONDS);
+            assertNotNull(change);
+            // Only the external edit, not the enum, float or int written by the saves above
+            assertEquals(Set.of("motd"), change.changedKeys());
+            assertEquals(24, change.value().slots);
+        }
+    }
+}